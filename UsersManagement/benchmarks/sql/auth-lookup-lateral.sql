@@ -0,0 +1,31 @@
+-- pgbench script: the current auth lookup (UserRepository.findUserAuthByUsername),
+-- reading the ids from the link tables only through LATERAL aggregates.
+--   pgbench -n -f auth-lookup-lateral.sql -c 8 -j 8 -T 60 users_bench
+\set n random(1, 1000000)
+SELECT
+    u.id_user AS id,
+    u.username AS username,
+    u.email AS email,
+    u.password AS password,
+    u.enabled AS enabled,
+    u.is_admin AS isAdmin,
+    r.ids AS roles,
+    m.ids AS modules,
+    s.ids AS submodules
+FROM users u
+CROSS JOIN LATERAL (
+    SELECT COALESCE(array_agg(ur.id_role ORDER BY ur.id_role), '{}') AS ids
+    FROM users_roles ur
+    WHERE ur.id_user = u.id_user
+) r
+CROSS JOIN LATERAL (
+    SELECT COALESCE(array_agg(um.id_module ORDER BY um.id_module), '{}') AS ids
+    FROM users_modules um
+    WHERE um.id_user = u.id_user
+) m
+CROSS JOIN LATERAL (
+    SELECT COALESCE(array_agg(us.id_submodule ORDER BY us.id_submodule), '{}') AS ids
+    FROM users_submodules us
+    WHERE us.id_user = u.id_user
+) s
+WHERE u.username = 'bench_user_' || :n;
@@ -0,0 +1,30 @@
+-- pgbench script: the previous auth lookup, one correlated subquery per
+-- permission kind, each joining the link table to its master table.
+--   pgbench -n -f auth-lookup-subqueries.sql -c 8 -j 8 -T 60 users_bench
+\set n random(1, 1000000)
+SELECT
+    u.id_user AS id,
+    u.username AS username,
+    u.email AS email,
+    u.password AS password,
+    u.enabled AS enabled,
+    (
+        SELECT array_agg(r.id_role)
+        FROM roles r
+        JOIN users_roles ur ON r.id_role = ur.id_role
+        WHERE ur.id_user = u.id_user
+    ) AS roles,
+    (
+        SELECT array_agg(m.id_module)
+        FROM modules m
+        JOIN users_modules um ON m.id_module = um.id_module
+        WHERE um.id_user = u.id_user
+    ) AS modules,
+    (
+        SELECT array_agg(s.id_submodule)
+        FROM submodules s
+        JOIN users_submodules us ON s.id_submodule = us.id_submodule
+        WHERE us.id_user = u.id_user
+    ) AS submodules
+FROM users u
+WHERE u.username = 'bench_user_' || :n;
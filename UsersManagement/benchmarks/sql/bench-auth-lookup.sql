@@ -0,0 +1,57 @@
+-- Times both auth lookups inside the database, for environments without
+-- pgbench. Each query runs :iterations times for random users; latencies are
+-- reported in microseconds.
+--   psql -d users_bench -f bench-auth-lookup.sql
+
+CREATE OR REPLACE FUNCTION pg_temp.bench_auth_lookup(label text, query text, iterations int)
+RETURNS TABLE (variant text, runs int, avg_us numeric, p50_us numeric, p99_us numeric, max_us numeric)
+LANGUAGE plpgsql AS $$
+DECLARE
+    started timestamptz;
+    samples numeric[] := '{}';
+BEGIN
+    -- Warm up the buffers and the plan
+    FOR i IN 1..least(iterations, 1000) LOOP
+        EXECUTE query USING 'bench_user_' || (1 + floor(random() * 1000000))::int;
+    END LOOP;
+
+    FOR i IN 1..iterations LOOP
+        started := clock_timestamp();
+        EXECUTE query USING 'bench_user_' || (1 + floor(random() * 1000000))::int;
+        samples := samples || (extract(epoch FROM clock_timestamp() - started) * 1000000)::numeric;
+    END LOOP;
+
+    RETURN QUERY
+    SELECT label,
+           iterations,
+           round(avg(x), 1),
+           round(percentile_cont(0.5) WITHIN GROUP (ORDER BY x)::numeric, 1),
+           round(percentile_cont(0.99) WITHIN GROUP (ORDER BY x)::numeric, 1),
+           round(max(x), 1)
+    FROM unnest(samples) AS x;
+END
+$$;
+
+SELECT * FROM pg_temp.bench_auth_lookup('subqueries', $q$
+    SELECT u.id_user, u.username, u.email, u.password, u.enabled,
+        (SELECT array_agg(r.id_role) FROM roles r
+            JOIN users_roles ur ON r.id_role = ur.id_role WHERE ur.id_user = u.id_user),
+        (SELECT array_agg(m.id_module) FROM modules m
+            JOIN users_modules um ON m.id_module = um.id_module WHERE um.id_user = u.id_user),
+        (SELECT array_agg(s.id_submodule) FROM submodules s
+            JOIN users_submodules us ON s.id_submodule = us.id_submodule WHERE us.id_user = u.id_user)
+    FROM users u
+    WHERE u.username = $1
+$q$, 20000)
+UNION ALL
+SELECT * FROM pg_temp.bench_auth_lookup('lateral', $q$
+    SELECT u.id_user, u.username, u.email, u.password, u.enabled, u.is_admin, r.ids, m.ids, s.ids
+    FROM users u
+    CROSS JOIN LATERAL (SELECT COALESCE(array_agg(ur.id_role ORDER BY ur.id_role), '{}') AS ids
+        FROM users_roles ur WHERE ur.id_user = u.id_user) r
+    CROSS JOIN LATERAL (SELECT COALESCE(array_agg(um.id_module ORDER BY um.id_module), '{}') AS ids
+        FROM users_modules um WHERE um.id_user = u.id_user) m
+    CROSS JOIN LATERAL (SELECT COALESCE(array_agg(us.id_submodule ORDER BY us.id_submodule), '{}') AS ids
+        FROM users_submodules us WHERE us.id_user = u.id_user) s
+    WHERE u.username = $1
+$q$, 20000);
@@ -0,0 +1,95 @@
+-- Times the keyset search at page 1 and page 10,000 (50 users per page),
+-- comparing the previous catch-all query with the SQL now built by
+-- UserRepositoryCustomImpl. Statements are prepared with a generic plan, as
+-- the JDBC driver does once a statement has been executed a few times.
+-- Needs the indexes of src/main/resources/schema-postgres.sql. The catch-all
+-- query scans the whole table, so it only runs 20 times.
+--   psql -d users_bench -f bench-keyset.sql
+
+SET plan_cache_mode = force_generic_plan;
+
+PREPARE keyset_catch_all(bigint, text, text, bigint, int, text) AS
+SELECT u.id_user, u.username, u.email, u.enabled, u.is_admin
+FROM users u
+WHERE ($1::bigint IS NULL OR u.id_user = $1)
+  AND ($2::text IS NULL OR LOWER(u.username) LIKE CONCAT($2, '%'))
+  AND ($3::text IS NULL OR LOWER(u.email) LIKE CONCAT($3, '%'))
+  AND (
+      ($6 = 'NEXT' AND ($4::bigint IS NULL OR u.id_user > $4))
+      OR
+      ($6 = 'PREVIOUS' AND ($4::bigint IS NULL OR u.id_user < $4))
+  )
+ORDER BY
+  CASE WHEN $6 = 'NEXT' THEN u.id_user END ASC,
+  CASE WHEN $6 = 'PREVIOUS' THEN u.id_user END DESC
+LIMIT $5;
+
+PREPARE keyset_first(int) AS
+SELECT u.id_user, u.username, u.email, u.enabled, u.is_admin
+FROM users u
+WHERE TRUE
+ORDER BY u.id_user ASC
+LIMIT $1;
+
+PREPARE keyset_next(bigint, int) AS
+SELECT u.id_user, u.username, u.email, u.enabled, u.is_admin
+FROM users u
+WHERE TRUE
+  AND u.id_user > $1
+ORDER BY u.id_user ASC
+LIMIT $2;
+
+PREPARE keyset_username(text, text, bigint, int) AS
+SELECT u.id_user, u.username, u.email, u.enabled, u.is_admin
+FROM users u
+WHERE TRUE
+  AND lower(u.username) ~>=~ $1
+  AND lower(u.username) ~<~ $2
+  AND u.id_user > $3
+ORDER BY u.id_user ASC
+LIMIT $4;
+
+CREATE OR REPLACE FUNCTION pg_temp.bench_keyset(label text, statement text, iterations int)
+RETURNS TABLE (variant text, runs int, avg_us numeric, p50_us numeric, p99_us numeric)
+LANGUAGE plpgsql AS $$
+DECLARE
+    started timestamptz;
+    samples numeric[] := '{}';
+BEGIN
+    FOR i IN 1..least(iterations, 50) LOOP
+        EXECUTE statement;
+    END LOOP;
+
+    FOR i IN 1..iterations LOOP
+        started := clock_timestamp();
+        EXECUTE statement;
+        samples := samples || (extract(epoch FROM clock_timestamp() - started) * 1000000)::numeric;
+    END LOOP;
+
+    RETURN QUERY
+    SELECT label,
+           iterations,
+           round(avg(x), 1),
+           round(percentile_cont(0.5) WITHIN GROUP (ORDER BY x)::numeric, 1),
+           round(percentile_cont(0.99) WITHIN GROUP (ORDER BY x)::numeric, 1)
+    FROM unnest(samples) AS x;
+END
+$$;
+
+SELECT * FROM pg_temp.bench_keyset('catch-all, page 1',
+    'EXECUTE keyset_catch_all(NULL, NULL, NULL, NULL, 51, ''NEXT'')', 20)
+UNION ALL
+SELECT * FROM pg_temp.bench_keyset('catch-all, page 10000',
+    'EXECUTE keyset_catch_all(NULL, NULL, NULL, 499950, 51, ''NEXT'')', 20)
+UNION ALL
+SELECT * FROM pg_temp.bench_keyset('catch-all, username prefix, deep page',
+    'EXECUTE keyset_catch_all(NULL, ''bench_user_99'', NULL, 994950, 51, ''NEXT'')', 20)
+UNION ALL
+SELECT * FROM pg_temp.bench_keyset('dynamic, page 1',
+    'EXECUTE keyset_first(51)', 2000)
+UNION ALL
+SELECT * FROM pg_temp.bench_keyset('dynamic, page 10000',
+    'EXECUTE keyset_next(499950, 51)', 2000)
+UNION ALL
+SELECT * FROM pg_temp.bench_keyset('dynamic, username prefix, deep page',
+    'EXECUTE keyset_username(''bench_user_99'', ''bench_user_9:'', 994950, 51)', 2000);
@@ -0,0 +1,107 @@
+-- Seeds a benchmark database with about 1M users and their permissions.
+--
+-- Run it against an empty database (never the application one), e.g.
+--   createdb users_bench && psql -d users_bench -f seed-1m-users.sql
+-- The tables mirror the ones generated by Hibernate for the entities.
+-- Every user gets 1-2 roles, 1-3 modules and 1-6 submodules; the password
+-- is the BCrypt hash of "pass".
+
+CREATE TABLE IF NOT EXISTS roles (
+    id_role bigserial PRIMARY KEY,
+    name varchar(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS modules (
+    id_module bigserial PRIMARY KEY,
+    name varchar(255) NOT NULL UNIQUE,
+    image varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS submodules (
+    id_submodule bigserial PRIMARY KEY,
+    name varchar(255) NOT NULL,
+    id_module bigint REFERENCES modules (id_module),
+    UNIQUE (name, id_module)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id_user bigserial PRIMARY KEY,
+    username varchar(255) NOT NULL UNIQUE,
+    email varchar(255) NOT NULL UNIQUE,
+    password varchar(255) NOT NULL,
+    enabled boolean,
+    is_admin boolean
+);
+
+CREATE TABLE IF NOT EXISTS users_roles (
+    id_user bigint NOT NULL REFERENCES users (id_user),
+    id_role bigint NOT NULL REFERENCES roles (id_role),
+    PRIMARY KEY (id_user, id_role)
+);
+
+CREATE TABLE IF NOT EXISTS users_modules (
+    id_user bigint NOT NULL REFERENCES users (id_user),
+    id_module bigint NOT NULL REFERENCES modules (id_module),
+    PRIMARY KEY (id_user, id_module)
+);
+
+CREATE TABLE IF NOT EXISTS users_submodules (
+    id_user bigint NOT NULL REFERENCES users (id_user),
+    id_submodule bigint NOT NULL REFERENCES submodules (id_submodule),
+    PRIMARY KEY (id_user, id_submodule)
+);
+
+INSERT INTO roles (id_role, name) VALUES
+(1, 'ROLE_USER'),
+(2, 'ROLE_ADMIN')
+ON CONFLICT DO NOTHING;
+
+INSERT INTO modules (id_module, name, image) VALUES
+(1, 'All', 'image'),
+(2, 'Users', 'image'),
+(3, 'Perfumes', 'image')
+ON CONFLICT DO NOTHING;
+
+INSERT INTO submodules (id_submodule, name, id_module) VALUES
+(1, 'ReadAll', 1),
+(2, 'WriteAll', 1),
+(3, 'ReadUsers', 2),
+(4, 'WriteUsers', 2),
+(5, 'ReadPerfumes', 3),
+(6, 'WritePerfumes', 3)
+ON CONFLICT DO NOTHING;
+
+INSERT INTO users (id_user, username, email, password, enabled, is_admin)
+SELECT n,
+       'bench_user_' || n,
+       'bench_user_' || n || '@example.com',
+       '$2a$10$7EqJtq98hPqEX7fNZaFWoOa3BpT3VzQgYbZqzP5DUnQv6sZfA8c2W',
+       n % 50 <> 0,
+       n % 1000 = 0
+FROM generate_series(1, 1000000) AS n
+ON CONFLICT DO NOTHING;
+
+INSERT INTO users_roles (id_user, id_role)
+SELECT n, r
+FROM generate_series(1, 1000000) AS n
+CROSS JOIN generate_series(1, 2) AS r
+WHERE r = 1 OR n % 10 = 0
+ON CONFLICT DO NOTHING;
+
+INSERT INTO users_modules (id_user, id_module)
+SELECT n, m
+FROM generate_series(1, 1000000) AS n
+CROSS JOIN generate_series(1, 3) AS m
+WHERE m <= 1 + n % 3
+ON CONFLICT DO NOTHING;
+
+INSERT INTO users_submodules (id_user, id_submodule)
+SELECT n, s
+FROM generate_series(1, 1000000) AS n
+CROSS JOIN generate_series(1, 6) AS s
+WHERE s <= 1 + n % 6
+ON CONFLICT DO NOTHING;
+
+SELECT setval(pg_get_serial_sequence('users', 'id_user'), (SELECT max(id_user) FROM users));
+
+VACUUM ANALYZE;
@@ -0,0 +1,173 @@
+package com.dossantosh.usersmanagement.benchmarks;
+
+import java.util.List;
+
+import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuth;
+import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuthMaskProjection;
+import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuthProjection;
+import com.dossantosh.usersmanagement.models.Modules;
+import com.dossantosh.usersmanagement.models.Roles;
+import com.dossantosh.usersmanagement.models.Submodules;
+import com.dossantosh.usersmanagement.models.User;
+
+/**
+ * A typical user, as loaded by the authentication filter: two roles, three
+ * modules and six submodules, the same as the seeded administrator.
+ */
+final class Fixtures {
+
+    static final List<Long> ROLES = List.of(1L, 2L);
+
+    static final List<Long> MODULES = List.of(1L, 2L, 3L);
+
+    static final List<Long> SUBMODULES = List.of(1L, 2L, 3L, 4L, 5L, 6L);
+
+    private Fixtures() {
+    }
+
+    static UserAuth userAuth() {
+        UserAuth userAuth = new UserAuth();
+        userAuth.setId(1L);
+        userAuth.setUsername("sevas");
+        userAuth.setEmail("sevas@example.com");
+        userAuth.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z1aDZ1F/YhPwhYPhFGC8pXyG");
+        userAuth.setEnabled(true);
+        userAuth.setIsAdmin(true);
+        userAuth.setRoles(ROLES);
+        userAuth.setModules(MODULES);
+        userAuth.setSubmodules(SUBMODULES);
+        return userAuth;
+    }
+
+    static UserAuthProjection userAuthProjection() {
+        UserAuth userAuth = userAuth();
+        return new UserAuthProjection() {
+            @Override
+            public Long getId() {
+                return userAuth.getId();
+            }
+
+            @Override
+            public String getUsername() {
+                return userAuth.getUsername();
+            }
+
+            @Override
+            public String getEmail() {
+                return userAuth.getEmail();
+            }
+
+            @Override
+            public String getPassword() {
+                return userAuth.getPassword();
+            }
+
+            @Override
+            public Boolean getEnabled() {
+                return userAuth.getEnabled();
+            }
+
+            @Override
+            public Boolean getIsAdmin() {
+                return userAuth.getIsAdmin();
+            }
+
+            @Override
+            public List<Long> getRoles() {
+                return ROLES;
+            }
+
+            @Override
+            public List<Long> getModules() {
+                return MODULES;
+            }
+
+            @Override
+            public List<Long> getSubmodules() {
+                return SUBMODULES;
+            }
+        };
+    }
+
+    static UserAuthMaskProjection userAuthMaskProjection() {
+        UserAuth userAuth = userAuth();
+        return new UserAuthMaskProjection() {
+            @Override
+            public Long getId() {
+                return userAuth.getId();
+            }
+
+            @Override
+            public String getUsername() {
+                return userAuth.getUsername();
+            }
+
+            @Override
+            public String getEmail() {
+                return userAuth.getEmail();
+            }
+
+            @Override
+            public String getPassword() {
+                return userAuth.getPassword();
+            }
+
+            @Override
+            public Boolean getEnabled() {
+                return userAuth.getEnabled();
+            }
+
+            @Override
+            public Boolean getIsAdmin() {
+                return userAuth.getIsAdmin();
+            }
+
+            @Override
+            public Long getRolesMask() {
+                return userAuth.getRoles().toMask();
+            }
+
+            @Override
+            public Long getModulesMask() {
+                return userAuth.getModules().toMask();
+            }
+
+            @Override
+            public Long getSubmodulesMask() {
+                return userAuth.getSubmodules().toMask();
+            }
+        };
+    }
+
+    static User user() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("sevas");
+        user.setEmail("sevas@example.com");
+        user.setEnabled(true);
+        user.setIsAdmin(true);
+
+        Modules[] modules = new Modules[MODULES.size() + 1];
+        for (Long id : ROLES) {
+            Roles role = new Roles();
+            role.setId(id);
+            role.setName("ROLE_" + id);
+            user.getRoles().add(role);
+        }
+        for (Long id : MODULES) {
+            Modules module = new Modules();
+            module.setId(id);
+            module.setName("Module " + id);
+            modules[id.intValue()] = module;
+            user.getModules().add(module);
+        }
+        for (Long id : SUBMODULES) {
+            Submodules submodule = new Submodules();
+            submodule.setId(id);
+            submodule.setName("Submodule " + id);
+            submodule.setModule(modules[(int) ((id - 1) / 2) + 1]);
+            user.getSubmodules().add(submodule);
+        }
+        return user;
+    }
+}
@@ -0,0 +1,82 @@
+package com.dossantosh.usersmanagement.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuth;
+import com.dossantosh.usersmanagement.common.security.jwt.JwtUtil;
+
+/**
+ * Benchmarks of the {@link JwtUtil} calls made on every login and every
+ * authenticated request.
+ * <p>
+ * {@code cacheSize} 0 verifies the signature on every call, as for a token seen
+ * for the first time; 10000 serves the same token from the verified token
+ * cache. {@code statelessPrincipal} adds the principal claims to the token.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    @Param({ "0", "10000" })
+    private int cacheSize;
+
+    @Param({ "false", "true" })
+    private boolean statelessPrincipal;
+
+    private JwtUtil jwtUtil;
+
+    private UserAuth userAuth;
+
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        jwtUtil.setSecret("0123456789abcdef0123456789abcdef0123456789abcdef");
+        jwtUtil.setExpiration(TimeUnit.HOURS.toMillis(1));
+        jwtUtil.setCacheSize(cacheSize);
+        jwtUtil.setStatelessPrincipal(statelessPrincipal);
+        jwtUtil.init();
+
+        userAuth = Fixtures.userAuth();
+        token = jwtUtil.generateToken(userAuth);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(userAuth);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, userAuth);
+    }
+
+    @Benchmark
+    public UserAuth extractUserAuth() {
+        return jwtUtil.extractUserAuth(jwtUtil.verify(token));
+    }
+}
@@ -0,0 +1,83 @@
+package com.dossantosh.usersmanagement.benchmarks;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuth;
+import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuthMaskProjection;
+import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuthProjection;
+import com.dossantosh.usersmanagement.common.security.custom.auth.bus.UserAuthDTO;
+import com.dossantosh.usersmanagement.models.User;
+import com.dossantosh.usersmanagement.projections.FullUserDTO;
+import com.dossantosh.usersmanagement.services.UserService;
+
+/**
+ * Benchmarks of the mappings between the authentication lookup, the
+ * {@link UserAuth} principal and the DTOs returned by the API.
+ * <p>
+ * The mappings are static methods of {@link UserService}, so no database is
+ * needed.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMappingBenchmark {
+
+    private UserAuthProjection projection;
+
+    private UserAuthMaskProjection maskProjection;
+
+    private UserAuth userAuth;
+
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        projection = Fixtures.userAuthProjection();
+        maskProjection = Fixtures.userAuthMaskProjection();
+        userAuth = Fixtures.userAuth();
+        user = Fixtures.user();
+    }
+
+    @Benchmark
+    public UserAuth mapToUserAuth() {
+        return UserService.mapToUserAuth(projection);
+    }
+
+    @Benchmark
+    public UserAuth mapToUserAuthFromMasks() {
+        return UserService.mapToUserAuth(maskProjection);
+    }
+
+    @Benchmark
+    public UserAuthDTO mapToUserAuthDTO() {
+        return UserService.mapToUserAuthDTO(userAuth);
+    }
+
+    @Benchmark
+    public FullUserDTO mapToFullUserDTO() {
+        return UserService.mapToFullUserDTO(user);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return userAuth.getAuthorities();
+    }
+}
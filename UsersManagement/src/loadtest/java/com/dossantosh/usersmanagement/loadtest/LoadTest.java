@@ -0,0 +1,145 @@
+package com.dossantosh.usersmanagement.loadtest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.dossantosh.usersmanagement.UsersManagementApplication;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * End-to-end load test of the service against a real PostgreSQL.
+ * <p>
+ * Starts an embedded PostgreSQL (or uses the empty database given by
+ * {@code db.url}), starts the application on a random port against it, seeds
+ * {@code users} users with a spread of roles, modules and submodules, then
+ * drives the API with a closed-loop {@link Workload} and reports the latency
+ * percentiles and the throughput of each endpoint.
+ * </p>
+ * <p>
+ * Options are passed as {@code key=value} arguments; any argument starting
+ * with {@code --} is passed to the application, e.g.
+ * {@code --jwt.stateless-principal=true}. See {@code benchmarks/loadtest}.
+ * </p>
+ */
+public final class LoadTest {
+
+    private static final String PASSWORD = "pass";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Devtools would run main again in its restart class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        Map<String, String> options = new HashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                appArgs.add(arg);
+            } else if (arg.contains("=")) {
+                options.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Expected key=value or --property=value: " + arg);
+            }
+        }
+
+        Workload.Config config = new Workload.Config(
+                Integer.parseInt(options.getOrDefault("users", "100000")),
+                Integer.parseInt(options.getOrDefault("clients", "16")),
+                Duration.parse("PT" + options.getOrDefault("warmup", "20s")),
+                Duration.parse("PT" + options.getOrDefault("duration", "60s")),
+                Workload.Operation.parseMix(options.getOrDefault("mix", "login=1,me=40,list=30,get=29")),
+                PASSWORD);
+        Path out = options.containsKey("out") ? Path.of(options.get("out")) : null;
+
+        EmbeddedPostgres postgres = null;
+        String jdbcUrl = options.get("db.url");
+        if (jdbcUrl == null) {
+            if ("root".equals(System.getProperty("user.name"))) {
+                throw new IllegalStateException("PostgreSQL refuses to run as root: run the load test as another "
+                        + "user, or pass db.url=jdbc:postgresql://... pointing to an empty database");
+            }
+            postgres = EmbeddedPostgres.builder()
+                    .setDataDirectory(Path.of("target", "loadtest-postgres"))
+                    .setCleanDataDirectory(true)
+                    .start();
+            jdbcUrl = postgres.getJdbcUrl("postgres", "postgres");
+        }
+
+        try (ConfigurableApplicationContext context = start(jdbcUrl, options, appArgs)) {
+            int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+
+            log("Seeding %,d users", config.users());
+            long seedStart = System.nanoTime();
+            String passwordHash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+            Seeder.seed(context.getBean(JdbcTemplate.class), config.users(), passwordHash);
+            log("Seeded in %.1fs", (System.nanoTime() - seedStart) / 1e9);
+
+            log("Running %d clients for %s after %s of warm-up, mix %s", config.clients(),
+                    config.duration().toSeconds() + "s", config.warmup().toSeconds() + "s", config.mix());
+            Workload.Result result = new Workload("http://localhost:" + port, config).run();
+
+            System.out.println();
+            System.out.print(result.table());
+
+            if (out != null) {
+                Map<String, Object> settings = new LinkedHashMap<>(config.toMap());
+                settings.put("appArgs", appArgs);
+                settings.put("cpus", Runtime.getRuntime().availableProcessors());
+                settings.put("jvm", System.getProperty("java.vm.version"));
+                Files.createDirectories(out.toAbsolutePath().getParent());
+                result.writeJson(out, settings);
+                log("Results written to %s", out);
+            }
+        } finally {
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    /**
+     * Starts the application on a random port with the request logging of the
+     * default configuration turned down, so the run measures the service and not
+     * its logs. These settings are system properties so that they win over
+     * application.properties, while the {@code --} arguments still win over them.
+     */
+    private static ConfigurableApplicationContext start(String jdbcUrl, Map<String, String> options,
+            List<String> appArgs) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("spring.datasource.url", jdbcUrl);
+        properties.put("spring.datasource.username", options.getOrDefault("db.user", "postgres"));
+        properties.put("spring.datasource.password", options.getOrDefault("db.password", "postgres"));
+        properties.put("jwt.secret", "load-test-secret-load-test-secret-load-test-secret");
+        properties.put("jwt.expiration", "3600000");
+        properties.put("server.port", "0");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.org.springframework.security", "WARN");
+        properties.put("logging.level.org.hibernate.SQL", "WARN");
+        properties.put("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "WARN");
+        properties.put("logging.level.com.zaxxer.hikari", "WARN");
+        properties.put("logging.level.com.zaxxer.hikari.HikariConfig", "WARN");
+        properties.put("spring.main.banner-mode", "off");
+        properties.forEach(System::setProperty);
+
+        return new SpringApplicationBuilder(UsersManagementApplication.class)
+                .run(appArgs.toArray(String[]::new));
+    }
+
+    static void log(String format, Object... args) {
+        System.out.printf("[loadtest] " + format + "%n", args);
+    }
+}
@@ -0,0 +1,64 @@
+package com.dossantosh.usersmanagement.loadtest;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * Seeds the database created by the application with load test users.
+ * <p>
+ * The spread of permissions is the one of
+ * {@code benchmarks/sql/seed-1m-users.sql}: every user gets 1-2 roles, 1-3
+ * modules and 1-6 submodules, one in 50 is disabled and one in 1000 is an
+ * administrator. User {@code n} is {@code load_user_n}, with id {@code n}, and
+ * every user has the same password.
+ * </p>
+ */
+final class Seeder {
+
+    private Seeder() {
+    }
+
+    static void seed(JdbcTemplate jdbcTemplate, int users, String passwordHash) {
+        jdbcTemplate.update("""
+                INSERT INTO users (id_user, username, email, password, enabled, is_admin)
+                SELECT n, 'load_user_' || n, 'load_user_' || n || '@example.com', ?, n % 50 <> 0, n % 1000 = 0
+                FROM generate_series(1, ?) AS n
+                """, passwordHash, users);
+        jdbcTemplate.update("""
+                INSERT INTO users_roles (id_user, id_role)
+                SELECT n, r
+                FROM generate_series(1, ?) AS n
+                CROSS JOIN generate_series(1, 2) AS r
+                WHERE r = 1 OR n % 10 = 0
+                """, users);
+        jdbcTemplate.update("""
+                INSERT INTO users_modules (id_user, id_module)
+                SELECT n, m
+                FROM generate_series(1, ?) AS n
+                CROSS JOIN generate_series(1, 3) AS m
+                WHERE m <= 1 + n % 3
+                """, users);
+        jdbcTemplate.update("""
+                INSERT INTO users_submodules (id_user, id_submodule)
+                SELECT n, s
+                FROM generate_series(1, ?) AS n
+                CROSS JOIN generate_series(1, 6) AS s
+                WHERE s <= 1 + n % 6
+                """, users);
+        jdbcTemplate.execute(
+                "SELECT setval(pg_get_serial_sequence('users', 'id_user'), (SELECT max(id_user) FROM users))");
+
+        // The data script fills the permission masks of the users that have none
+        new ResourceDatabasePopulator(new ClassPathResource("data-postgres.sql"))
+                .execute(jdbcTemplate.getDataSource());
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    /**
+     * Returns whether user {@code n} can log in.
+     */
+    static boolean isEnabled(int n) {
+        return n % 50 != 0;
+    }
+}
@@ -0,0 +1,342 @@
+package com.dossantosh.usersmanagement.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Closed-loop workload: each client sends a request, waits for the whole
+ * response and sends the next one right away, picking the operation at random
+ * according to the mix.
+ * <p>
+ * Each client logs in once before the run, retrying rejected logins during
+ * the warm-up, and then authenticates with its token; a login during the run
+ * switches the client to another user. Only the requests started after the
+ * warm-up are recorded. Latencies are kept in
+ * microseconds, in one histogram per client and operation merged at the end.
+ * </p>
+ * <p>
+ * A closed loop sends less when the service slows down, so the percentiles
+ * describe the latency seen by these clients at the throughput reached, not
+ * under a fixed arrival rate.
+ * </p>
+ */
+final class Workload {
+
+    private static final Pattern JWT = Pattern.compile("\"jwt\"\\s*:\\s*\"([^\"]+)\"");
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final String baseUrl;
+
+    private final Config config;
+
+    private final HttpClient httpClient;
+
+    Workload(String baseUrl, Config config) {
+        this.baseUrl = baseUrl;
+        this.config = config;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    /**
+     * Runs the clients for the warm-up and the measured duration.
+     *
+     * @return the merged histograms and error counts
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    Result run() throws InterruptedException {
+        long measureStart = System.nanoTime() + config.warmup().toNanos();
+        long end = measureStart + config.duration().toNanos();
+
+        List<Client> clients = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < config.clients(); i++) {
+            Client client = new Client(i, measureStart, end);
+            clients.add(client);
+            threads.add(Thread.ofPlatform().name("loadtest-client-" + i).start(client));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Result result = new Result(config.duration());
+        for (Client client : clients) {
+            if (client.failure != null) {
+                throw new IllegalStateException("Client failed", client.failure);
+            }
+            client.histograms.forEach((operation, histogram) -> result.histograms.get(operation).add(histogram));
+            client.errors.forEach((operation, errors) -> result.errors.merge(operation, errors, Long::sum));
+        }
+        return result;
+    }
+
+    private final class Client implements Runnable {
+
+        private final SplittableRandom random;
+
+        private final long measureStart;
+
+        private final long end;
+
+        private final Map<Operation, Histogram> histograms = Operation.histograms();
+
+        private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+
+        private String token;
+
+        private Exception failure;
+
+        Client(int index, long measureStart, long end) {
+            this.random = new SplittableRandom(index);
+            this.measureStart = measureStart;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            try {
+                token = login(randomEnabledUser());
+                while (token == null) {
+                    // Logins rejected while all clients start (429/503) are retried until the warm-up ends
+                    if (System.nanoTime() >= measureStart) {
+                        throw new IllegalStateException("Initial login failed");
+                    }
+                    Thread.sleep(1000);
+                    token = login(randomEnabledUser());
+                }
+
+                long now;
+                while ((now = System.nanoTime()) < end) {
+                    Operation operation = config.pick(random);
+                    boolean ok = send(operation);
+                    long latency = System.nanoTime() - now;
+                    if (now >= measureStart) {
+                        histograms.get(operation).recordValue(
+                                Math.min(TimeUnit.NANOSECONDS.toMicros(latency), MAX_LATENCY_MICROS));
+                        if (!ok) {
+                            errors.merge(operation, 1L, Long::sum);
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
+
+        private boolean send(Operation operation) throws IOException, InterruptedException {
+            return switch (operation) {
+                case LOGIN -> {
+                    String newToken = login(randomEnabledUser());
+                    if (newToken != null) {
+                        token = newToken;
+                    }
+                    yield newToken != null;
+                }
+                case ME -> get("/api/auth/me");
+                case LIST -> random.nextBoolean()
+                        ? get("/api/users?limit=50&lastId=" + random.nextInt(config.users()))
+                        : get("/api/users?limit=50&username=load_user_" + (1 + random.nextInt(999)));
+                case GET -> get("/api/users/" + (1 + random.nextInt(config.users())));
+            };
+        }
+
+        private boolean get(String path) throws IOException, InterruptedException {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        }
+
+        private String login(int user) throws IOException, InterruptedException {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"load_user_" + user
+                            + "\",\"password\":\"" + config.password() + "\"}"))
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return null;
+            }
+            Matcher matcher = JWT.matcher(response.body());
+            return matcher.find() ? matcher.group(1) : null;
+        }
+
+        private int randomEnabledUser() {
+            int user;
+            do {
+                user = 1 + random.nextInt(config.users());
+            } while (!Seeder.isEnabled(user));
+            return user;
+        }
+    }
+
+    /**
+     * Operations of the workload, each one endpoint.
+     */
+    enum Operation {
+        LOGIN("POST /api/auth/login"),
+        ME("GET /api/auth/me"),
+        LIST("GET /api/users"),
+        GET("GET /api/users/{id}");
+
+        private final String endpoint;
+
+        Operation(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        /**
+         * Parses a mix such as {@code login=1,me=40,list=30,get=29} into weights.
+         */
+        static Map<Operation, Integer> parseMix(String mix) {
+            Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.split("=");
+                weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)),
+                        Integer.parseInt(parts[1].trim()));
+            }
+            return weights;
+        }
+
+        static Map<Operation, Histogram> histograms() {
+            Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+            for (Operation operation : values()) {
+                histograms.put(operation, new Histogram(MAX_LATENCY_MICROS, 3));
+            }
+            return histograms;
+        }
+    }
+
+    /**
+     * Settings of a run.
+     */
+    record Config(int users, int clients, Duration warmup, Duration duration, Map<Operation, Integer> mix,
+            String password) {
+
+        Operation pick(SplittableRandom random) {
+            int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+            int value = random.nextInt(total);
+            for (Map.Entry<Operation, Integer> weight : mix.entrySet()) {
+                value -= weight.getValue();
+                if (value < 0) {
+                    return weight.getKey();
+                }
+            }
+            throw new IllegalStateException("Empty mix");
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("users", users);
+            map.put("clients", clients);
+            map.put("warmupSeconds", warmup.toSeconds());
+            map.put("durationSeconds", duration.toSeconds());
+            Map<String, Integer> weights = new LinkedHashMap<>();
+            mix.forEach((operation, weight) -> weights.put(operation.name().toLowerCase(Locale.ROOT), weight));
+            map.put("mix", weights);
+            return map;
+        }
+    }
+
+    /**
+     * Latencies and errors of the measured part of a run.
+     */
+    static final class Result {
+
+        private final Duration duration;
+
+        private final Map<Operation, Histogram> histograms = Operation.histograms();
+
+        private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+
+        Result(Duration duration) {
+            this.duration = duration;
+        }
+
+        /**
+         * Formats the results as a table, latencies in milliseconds.
+         */
+        String table() {
+            StringBuilder table = new StringBuilder(String.format(Locale.ROOT,
+                    "%-22s %10s %8s %10s %9s %9s %9s %9s%n",
+                    "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+            for (Map<String, Object> row : rows()) {
+                table.append(String.format(Locale.ROOT, "%-22s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                        row.get("endpoint"), row.get("requests"), row.get("errors"), row.get("throughput"),
+                        row.get("p50"), row.get("p99"), row.get("p999"), row.get("max")));
+            }
+            return table.toString();
+        }
+
+        void writeJson(Path out, Map<String, Object> settings) throws IOException {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("settings", settings);
+            json.put("latencyUnit", "ms");
+            json.put("results", rows());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), json);
+        }
+
+        private List<Map<String, Object>> rows() {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+            long totalErrors = 0;
+            for (Operation operation : Operation.values()) {
+                Histogram histogram = histograms.get(operation);
+                if (histogram.getTotalCount() == 0) {
+                    continue;
+                }
+                long operationErrors = errors.getOrDefault(operation, 0L);
+                rows.add(row(operation.endpoint, histogram, operationErrors));
+                total.add(histogram);
+                totalErrors += operationErrors;
+            }
+            rows.add(row("all", total, totalErrors));
+            return rows;
+        }
+
+        private Map<String, Object> row(String endpoint, Histogram histogram, long errors) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", endpoint);
+            row.put("requests", histogram.getTotalCount());
+            row.put("errors", errors);
+            row.put("throughput", round(histogram.getTotalCount() / (duration.toMillis() / 1000.0)));
+            row.put("p50", millis(histogram.getValueAtPercentile(50)));
+            row.put("p99", millis(histogram.getValueAtPercentile(99)));
+            row.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+            row.put("max", millis(histogram.getMaxValue()));
+            return row;
+        }
+
+        private static double millis(long micros) {
+            return round(micros / 1000.0);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.dossantosh.usersmanagement.common.global.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+/**
+ * Loads cache misses in the calling thread, outside the lock of the cache.
+ * <p>
+ * {@code Cache.get(key, loader)} runs the loader inside a
+ * {@code ConcurrentHashMap} compute, which holds a monitor: on Java 21 a
+ * virtual thread doing JDBC there pins its carrier thread for the whole query.
+ * Here the compute only installs an empty future. The caller that installed it
+ * runs the loader and completes the future, while concurrent callers for the
+ * same key park on it, so each key is still loaded once.
+ * </p>
+ */
+public final class CacheLoads {
+
+    private CacheLoads() {
+    }
+
+    /**
+     * Returns the cached value of the key, loading it in this thread on a miss.
+     * A failed load is not cached and its exception is rethrown to every caller
+     * waiting for it.
+     *
+     * @param cache  the cache
+     * @param key    the key
+     * @param loader function loading the value, may block
+     * @return the value, or null if the loader returned null
+     */
+    public static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> pending = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> pending);
+        if (future == pending) {
+            try {
+                V value = loader.apply(key);
+                pending.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                pending.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
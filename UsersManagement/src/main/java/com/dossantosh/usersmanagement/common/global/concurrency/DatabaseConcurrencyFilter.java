@@ -0,0 +1,429 @@
+package com.dossantosh.usersmanagement.common.global.concurrency;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.dossantosh.usersmanagement.common.global.errors.ApiError;
+import com.dossantosh.usersmanagement.common.global.pool.AdaptivePoolController;
+import com.dossantosh.usersmanagement.common.security.hashing.PasswordHashingExecutor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Filter giving each class of API request its own budget of requests in
+ * progress, so that one class cannot take every database connection.
+ * <p>
+ * Requests are classified as {@code auth} (refresh and logout),
+ * {@code export} ({@code /api/users/export}), {@code write} (any other non-GET
+ * request) or {@code read}, which includes {@code /api/auth/me}. Each class is
+ * a bulkhead: a fair {@link Semaphore} of {@code limit} permits. A request
+ * takes a permit of its class before the security chain, which covers the
+ * principal lookup, and returns it when the response is complete, including
+ * streamed exports. It waits up to the {@code acquire-timeout} of its class
+ * and is then rejected with a 503 and a {@code Retry-After} header, instead of
+ * waiting in Hikari's {@code getConnection}. A burst of slow listings
+ * therefore fills the read budget while token requests keep their own. Waiting
+ * parks a virtual thread without holding a carrier.
+ * </p>
+ * <p>
+ * Logins are not limited here: their user lookup and BCrypt check run on the
+ * {@link PasswordHashingExecutor}, whose threads bound their connections and
+ * whose full queue rejects them with a 429. Holding a permit through the hash
+ * as well would shed the same overload twice.
+ * </p>
+ * <p>
+ * The limits are set for the maximum pool size at startup and should add up to
+ * no more than it, leaving room for background jobs; a warning is logged
+ * otherwise. When the {@link AdaptivePoolController} resizes the pool, every
+ * limit is scaled by the same ratio, so the budgets keep fitting in the pool.
+ * </p>
+ * <p>
+ * The wait is published as the {@code db.concurrency.wait} timer, rejections
+ * as {@code db.concurrency.rejected}, and the free permits and waiting
+ * requests as the {@code db.concurrency.available} and
+ * {@code db.concurrency.waiting} gauges, all tagged with the {@code budget}.
+ * </p>
+ */
+@Slf4j
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+@ConfigurationProperties(prefix = "db.concurrency")
+@ConditionalOnProperty(prefix = "db.concurrency", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class DatabaseConcurrencyFilter extends OncePerRequestFilter {
+
+    private final DataSource dataSource;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Budget of refresh and logout requests.
+     */
+    @Getter
+    @Setter
+    private Budget auth = new Budget(10, Duration.ofSeconds(2));
+
+    /**
+     * Budget of the other GET requests, such as listings.
+     */
+    @Getter
+    @Setter
+    private Budget read = new Budget(50, Duration.ofSeconds(5));
+
+    /**
+     * Budget of the other non-GET requests, such as updates and bulk imports.
+     */
+    @Getter
+    @Setter
+    private Budget write = new Budget(20, Duration.ofSeconds(5));
+
+    /**
+     * Budget of the streamed user exports, which hold a connection for their
+     * whole response.
+     */
+    @Getter
+    @Setter
+    private Budget export = new Budget(4, Duration.ofSeconds(1));
+
+    /**
+     * Seconds a rejected client is advised to wait before retrying.
+     */
+    @Getter
+    @Setter
+    private long retryAfterSeconds = 1;
+
+    private final Map<RequestClass, Bulkhead> bulkheads = new EnumMap<>(RequestClass.class);
+
+    // Maximum pool size the limits are configured for, 0 if unknown
+    private int basePoolSize;
+
+    /**
+     * Builds one bulkhead per request class and registers their meters once
+     * the properties are set. Not done in initFilterBean, which the servlet
+     * container calls a second time.
+     */
+    @PostConstruct
+    public void init() {
+        bulkheads.put(RequestClass.AUTH, new Bulkhead(RequestClass.AUTH, auth));
+        bulkheads.put(RequestClass.READ, new Bulkhead(RequestClass.READ, read));
+        bulkheads.put(RequestClass.WRITE, new Bulkhead(RequestClass.WRITE, write));
+        bulkheads.put(RequestClass.EXPORT, new Bulkhead(RequestClass.EXPORT, export));
+
+        int total = auth.getLimit() + read.getLimit() + write.getLimit() + export.getLimit();
+        try {
+            int maximumPoolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            basePoolSize = maximumPoolSize;
+            if (total > maximumPoolSize) {
+                log.warn("Database concurrency budgets allow {} requests but the pool has at most {} connections",
+                        total, maximumPoolSize);
+            }
+        } catch (SQLException e) {
+            log.debug("Data source is not a Hikari pool, budgets are not checked against its size", e);
+        }
+    }
+
+    /**
+     * Scales the limit of every budget to a new maximum pool size, by the ratio
+     * of that size to the size at startup. Each budget keeps at least one
+     * permit. Requests in progress above a lowered limit complete normally.
+     *
+     * @param maximumPoolSize the new maximum size of the pool
+     */
+    public synchronized void scaleTo(int maximumPoolSize) {
+        if (basePoolSize <= 0) {
+            return;
+        }
+        bulkheads.values().forEach(bulkhead -> bulkhead.resize(
+                Math.max(1, (int) ((long) bulkhead.configuredLimit * maximumPoolSize / basePoolSize))));
+        log.info("Database concurrency budgets scaled to a pool of {} connections: {}", maximumPoolSize,
+                limits());
+    }
+
+    /**
+     * Only API requests other than logins are limited: the actuator stays
+     * available under load, and logins are throttled by the
+     * {@link PasswordHashingExecutor}.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !uri.startsWith("/api/")
+                || uri.equals("/api/auth/login") && HttpMethod.POST.matches(request.getMethod());
+    }
+
+    /**
+     * Runs the request while holding a permit of its class, or rejects it with
+     * a 503 if no permit frees up in time.
+     *
+     * @param request     the incoming HttpServletRequest
+     * @param response    the outgoing HttpServletResponse
+     * @param filterChain the filter chain
+     * @throws ServletException in case of servlet errors
+     * @throws IOException      in case of I/O errors
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        Bulkhead bulkhead = bulkheads.get(RequestClass.of(request));
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = bulkhead.permits.tryAcquire(bulkhead.acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted while waiting for a database concurrency permit", e);
+        }
+        bulkhead.waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (!acquired) {
+            bulkhead.rejected.increment();
+            reject(request, response);
+            return;
+        }
+
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(bulkhead.permits));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                bulkhead.permits.release();
+            }
+        }
+    }
+
+    /**
+     * Returns the limit, free permits and waiting requests of each budget.
+     *
+     * @return the state of each budget, by name
+     */
+    public Map<String, Map<String, Object>> budgets() {
+        Map<String, Map<String, Object>> budgets = new LinkedHashMap<>();
+        bulkheads.forEach((requestClass, bulkhead) -> {
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("limit", bulkhead.limit);
+            state.put("configuredLimit", bulkhead.configuredLimit);
+            state.put("acquireTimeout", Duration.ofNanos(bulkhead.acquireTimeoutNanos).toString());
+            state.put("available", bulkhead.permits.availablePermits());
+            state.put("waiting", bulkhead.permits.getQueueLength());
+            state.put("rejected", (long) bulkhead.rejected.count());
+            budgets.put(requestClass.tag, state);
+        });
+        return budgets;
+    }
+
+    private Map<String, Integer> limits() {
+        Map<String, Integer> limits = new LinkedHashMap<>();
+        bulkheads.forEach((requestClass, bulkhead) -> limits.put(requestClass.tag, bulkhead.limit));
+        return limits;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ApiError apiError = new ApiError(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(),
+                "Too many requests in progress, please retry later",
+                request.getRequestURI());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), apiError);
+    }
+
+    /**
+     * Limit and queue timeout of one class of requests.
+     */
+    @Getter
+    @Setter
+    public static class Budget {
+
+        /**
+         * Maximum number of requests of the class in progress.
+         */
+        private int limit;
+
+        /**
+         * Time a request waits for a permit before it is rejected.
+         */
+        private Duration acquireTimeout;
+
+        public Budget() {
+        }
+
+        Budget(int limit, Duration acquireTimeout) {
+            this.limit = limit;
+            this.acquireTimeout = acquireTimeout;
+        }
+    }
+
+    /**
+     * Classes of API requests, each with its own budget.
+     */
+    private enum RequestClass {
+        AUTH, READ, WRITE, EXPORT;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+
+        static RequestClass of(HttpServletRequest request) {
+            String uri = request.getRequestURI();
+            String method = request.getMethod();
+            boolean read = HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method);
+            if (uri.startsWith("/api/users/export")) {
+                return EXPORT;
+            }
+            if (read) {
+                return READ;
+            }
+            return uri.startsWith("/api/auth/") ? AUTH : WRITE;
+        }
+    }
+
+    /**
+     * Semaphore and meters of one request class.
+     */
+    private final class Bulkhead {
+
+        private final int configuredLimit;
+
+        private volatile int limit;
+
+        private final long acquireTimeoutNanos;
+
+        private final ResizableSemaphore permits;
+
+        private final Timer waitTimer;
+
+        private final Counter rejected;
+
+        Bulkhead(RequestClass requestClass, Budget budget) {
+            this.configuredLimit = budget.getLimit();
+            this.limit = configuredLimit;
+            this.acquireTimeoutNanos = budget.getAcquireTimeout().toNanos();
+            this.permits = new ResizableSemaphore(limit);
+
+            this.waitTimer = Timer.builder("db.concurrency.wait")
+                    .description("Time API requests waited for a database concurrency permit")
+                    .tag("budget", requestClass.tag)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("db.concurrency.rejected")
+                    .description("API requests rejected after waiting too long for a permit")
+                    .tag("budget", requestClass.tag)
+                    .register(meterRegistry);
+            Gauge.builder("db.concurrency.available", permits, Semaphore::availablePermits)
+                    .description("Free database concurrency permits")
+                    .tag("budget", requestClass.tag)
+                    .register(meterRegistry);
+            Gauge.builder("db.concurrency.waiting", permits, Semaphore::getQueueLength)
+                    .description("API requests waiting for a database concurrency permit")
+                    .tag("budget", requestClass.tag)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Changes the number of permits. Lowering it may leave the available
+         * permits negative until enough requests in progress complete.
+         */
+        void resize(int newLimit) {
+            int delta = newLimit - limit;
+            if (delta > 0) {
+                permits.release(delta);
+            } else if (delta < 0) {
+                permits.reducePermits(-delta);
+            }
+            limit = newLimit;
+        }
+    }
+
+    /**
+     * Fair semaphore whose permits can be taken away without waiting.
+     */
+    private static final class ResizableSemaphore extends Semaphore {
+
+        ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+
+    /**
+     * Returns the permit of an asynchronous request, such as a streamed export,
+     * once its response is complete. onComplete is also called after an error
+     * or a timeout.
+     */
+    private static final class ReleaseOnComplete implements AsyncListener {
+
+        private final Semaphore permits;
+
+        ReleaseOnComplete(Semaphore permits) {
+            this.permits = permits;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permits.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // Followed by onComplete
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // Followed by onComplete
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Listeners are dropped when async is started again
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.dossantosh.usersmanagement.common.global.errors;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -11,6 +12,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 
 import com.dossantosh.usersmanagement.common.global.errors.custom.BusinessException;
+import com.dossantosh.usersmanagement.common.global.errors.custom.TooManyRequestsException;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -98,6 +100,26 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiError, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    /**
+     * Handles custom TooManyRequestsException and returns HTTP 429 Too Many Requests
+     * with a Retry-After header.
+     *
+     * @param ex      the exception
+     * @param request the current web request
+     * @return ResponseEntity containing ApiError with 429 status
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiError> handleTooManyRequests(TooManyRequestsException ex, WebRequest request) {
+        ApiError apiError = new ApiError(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase(),
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", ""));
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(apiError);
+    }
+
     /**
      * Handles custom BusinessException and returns HTTP 400 Bad Request.
      *
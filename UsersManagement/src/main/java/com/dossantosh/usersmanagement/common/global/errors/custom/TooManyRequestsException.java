@@ -0,0 +1,38 @@
+package com.dossantosh.usersmanagement.common.global.errors.custom;
+
+/**
+ * Custom exception class to represent a request rejected because the server
+ * is saturated.
+ * 
+ * This exception is thrown when a bounded resource, such as the password
+ * hashing executor, cannot accept more work. Clients should retry later.
+ * 
+ * It extends RuntimeException, so it is an unchecked exception.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    /**
+     * Seconds the client is advised to wait before retrying.
+     */
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new TooManyRequestsException with the specified detail message.
+     *
+     * @param message           the detail message explaining the reason for the exception
+     * @param retryAfterSeconds seconds the client is advised to wait before retrying
+     */
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Returns the seconds the client is advised to wait before retrying.
+     *
+     * @return the retry delay in seconds
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
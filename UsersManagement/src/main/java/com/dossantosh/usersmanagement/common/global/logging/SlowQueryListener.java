@@ -0,0 +1,105 @@
+package com.dossantosh.usersmanagement.common.global.logging;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+/**
+ * Logs the JDBC statements that took at least the slow threshold, and one in
+ * {@code sampleRate} of the others.
+ * <p>
+ * Slow statements are logged at WARN and sampled ones at INFO, each with its
+ * SQL, bind values, duration and batch size. A statement that is neither slow
+ * nor sampled costs one comparison and, when sampling is on, one random draw:
+ * the log entry is only built for the statements actually logged.
+ * </p>
+ * <p>
+ * The bind values of statements writing the {@code password} column are never
+ * logged, and the others are cut to {@code max-parameter-length} characters so
+ * that the arrays of a bulk insert do not flood the log.
+ * </p>
+ */
+@Slf4j
+public class SlowQueryListener implements QueryExecutionListener {
+
+    private static final Pattern PASSWORD_WRITE = Pattern.compile(
+            "^\\s*(insert|update)\\b.*\\bpassword\\b", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final RedactingLogEntryCreator entryCreator;
+
+    private final long slowThresholdMillis;
+
+    private final int sampleRate;
+
+    public SlowQueryListener(SqlLoggingProperties properties) {
+        this.entryCreator = new RedactingLogEntryCreator(properties.getMaxParameterLength());
+        this.slowThresholdMillis = properties.getSlowThreshold().toMillis();
+        this.sampleRate = properties.getSampleRate();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // Durations are measured by the proxy
+    }
+
+    /**
+     * Logs the statement if it was slow or is sampled.
+     *
+     * @param execInfo      the execution, with its duration in milliseconds
+     * @param queryInfoList the statements and their bind values
+     */
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() >= slowThresholdMillis) {
+            if (log.isWarnEnabled()) {
+                log.warn("Slow query: {}", entry(execInfo, queryInfoList));
+            }
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextInt(sampleRate) == 0 && log.isInfoEnabled()) {
+            log.info("Sampled query: {}", entry(execInfo, queryInfoList));
+        }
+    }
+
+    private String entry(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        return entryCreator.getLogEntry(execInfo, queryInfoList, false, true, false);
+    }
+
+    /**
+     * Log entry creator hiding the bind values of password writes and cutting
+     * long ones.
+     */
+    private static final class RedactingLogEntryCreator extends DefaultQueryLogEntryCreator {
+
+        private final int maxParameterLength;
+
+        RedactingLogEntryCreator(int maxParameterLength) {
+            this.maxParameterLength = maxParameterLength;
+        }
+
+        @Override
+        protected void writeParamsEntry(StringBuilder sb, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            for (QueryInfo queryInfo : queryInfoList) {
+                if (PASSWORD_WRITE.matcher(queryInfo.getQuery()).find()) {
+                    sb.append("Params:[redacted]");
+                    return;
+                }
+            }
+            super.writeParamsEntry(sb, execInfo, queryInfoList);
+        }
+
+        @Override
+        protected String getParameterValueToDisplay(ParameterSetOperation param) {
+            String value = super.getParameterValueToDisplay(param);
+            if (value == null || value.length() <= maxParameterLength) {
+                return value;
+            }
+            return value.substring(0, maxParameterLength) + "...(" + value.length() + " chars)";
+        }
+    }
+}
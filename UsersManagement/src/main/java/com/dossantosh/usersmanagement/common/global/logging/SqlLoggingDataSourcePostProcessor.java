@@ -0,0 +1,53 @@
+package com.dossantosh.usersmanagement.common.global.logging;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Wraps every data source in a proxy reporting its statements to a
+ * {@link SlowQueryListener}.
+ * <p>
+ * This replaces the global {@code org.hibernate.SQL} DEBUG and
+ * {@code BasicBinder} TRACE logging, now only turned on by the {@code dev}
+ * profile: it also covers the statements run through {@code JdbcTemplate}, and
+ * logs only the slow and sampled ones. The proxy unwraps to the pool, so the
+ * Hikari metrics and health checks still see it. Nothing is wrapped when
+ * {@code sql.logging.enabled} is false.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "sql.logging", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlLoggingDataSourcePostProcessor implements BeanPostProcessor {
+
+    // Resolved lazily: post-processors are created before the properties are bound
+    private final ObjectProvider<SqlLoggingProperties> properties;
+
+    public SqlLoggingDataSourcePostProcessor(ObjectProvider<SqlLoggingProperties> properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Wraps a data source once it is initialized.
+     *
+     * @param bean     the initialized bean
+     * @param beanName the name of the bean
+     * @return the proxy for a data source, otherwise the same bean
+     */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                    .name(beanName)
+                    .listener(new SlowQueryListener(properties.getObject()))
+                    .build();
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,41 @@
+package com.dossantosh.usersmanagement.common.global.logging;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Configuration properties for the JDBC statement logging.
+ *
+ * Maps properties with prefix 'sql.logging' from application properties or YAML.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "sql.logging")
+public class SqlLoggingProperties {
+
+    /**
+     * Whether the data source is wrapped to log slow and sampled statements.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Statements taking at least this long are logged at WARN with their bind values.
+     */
+    private Duration slowThreshold = Duration.ofMillis(200);
+
+    /**
+     * One in this many of the other statements is logged at INFO (0 disables sampling).
+     */
+    private int sampleRate = 1000;
+
+    /**
+     * Logged bind values, such as arrays of a bulk insert, are cut to this many characters.
+     */
+    private int maxParameterLength = 200;
+}
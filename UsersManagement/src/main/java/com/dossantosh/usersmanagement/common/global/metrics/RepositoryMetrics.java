@@ -0,0 +1,110 @@
+package com.dossantosh.usersmanagement.common.global.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every call to a Spring Data repository, such as {@code UserRepository},
+ * including the methods of its custom fragments.
+ * <p>
+ * Calls are published as the {@code repository.query} timer, tagged with the
+ * simple name of the repository interface, the method name and
+ * {@code outcome=success} or {@code error}. The timers of a method are created
+ * on its first call and then looked up by repository and {@link Method}, so
+ * timing a call allocates nothing. Overloads share their timers, which keeps
+ * the tags to one value per method name.
+ * </p>
+ * <p>
+ * It replaces the {@code spring.data.repository.invocations} timer of Spring
+ * Boot, which builds its tags on every call and is turned off in
+ * application.properties.
+ * </p>
+ */
+@Component
+public class RepositoryMetrics implements BeanPostProcessor, RepositoryMethodInvocationListener {
+
+    private static final String METRIC_NAME = "repository.query";
+
+    // Resolved lazily: post-processors are created before the registry
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    // Keyed by repository first: inherited methods such as findAll are shared
+    private final Map<Class<?>, Map<Method, Timers>> timers = new ConcurrentHashMap<>();
+
+    public RepositoryMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Registers this listener on every repository before it is created.
+     *
+     * @param bean     the bean being initialized
+     * @param beanName the name of the bean
+     * @return the same bean
+     */
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(this));
+        }
+        return bean;
+    }
+
+    /**
+     * Records the duration of a repository call.
+     *
+     * @param invocation the finished call
+     */
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation invocation) {
+        Class<?> repository = invocation.getRepositoryInterface();
+        Map<Method, Timers> repositoryTimers = timers.get(repository);
+        if (repositoryTimers == null) {
+            repositoryTimers = timers.computeIfAbsent(repository, key -> new ConcurrentHashMap<>());
+        }
+        Timers methodTimers = repositoryTimers.get(invocation.getMethod());
+        if (methodTimers == null) {
+            methodTimers = repositoryTimers.computeIfAbsent(invocation.getMethod(),
+                    method -> new Timers(meterRegistry.getObject(), repository, method));
+        }
+
+        boolean success = invocation.getResult().getState() == RepositoryMethodInvocationResult.State.SUCCESS;
+        (success ? methodTimers.success : methodTimers.error)
+                .record(invocation.getDuration(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Timers of one repository method.
+     */
+    private static final class Timers {
+
+        private final Timer success;
+
+        private final Timer error;
+
+        Timers(MeterRegistry registry, Class<?> repository, Method method) {
+            this.success = timer(registry, repository, method, "success");
+            this.error = timer(registry, repository, method, "error");
+        }
+
+        private static Timer timer(MeterRegistry registry, Class<?> repository, Method method, String outcome) {
+            return Timer.builder(METRIC_NAME)
+                    .description("Time spent in a repository method")
+                    .tag("repository", repository.getSimpleName())
+                    .tag("method", method.getName())
+                    .tag("outcome", outcome)
+                    .register(registry);
+        }
+    }
+}
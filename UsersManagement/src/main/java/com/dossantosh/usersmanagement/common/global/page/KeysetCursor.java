@@ -0,0 +1,74 @@
+package com.dossantosh.usersmanagement.common.global.page;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+
+import com.dossantosh.usersmanagement.common.global.errors.custom.BusinessException;
+
+/**
+ * Position of a row in a keyset page: the sort it belongs to, the value of the
+ * sort key and the id of the row.
+ * <p>
+ * Clients receive it as an opaque base64url token and send it back unchanged to
+ * fetch the next or previous page.
+ * </p>
+ *
+ * @param sort the sort the cursor was issued for
+ * @param key  the sort key of the row, null when sorting by id
+ * @param id   the id of the row
+ */
+public record KeysetCursor(UserSort sort, String key, long id) {
+
+    private static final byte VERSION = 1;
+
+    /**
+     * Encodes the cursor as an opaque token.
+     *
+     * @return the base64url token, without padding
+     */
+    public String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeByte(sort.ordinal());
+            out.writeLong(id);
+            out.writeBoolean(key != null);
+            if (key != null) {
+                out.writeUTF(key);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @param token the token sent by the client
+     * @return the decoded cursor
+     * @throws BusinessException if the token is not a valid cursor
+     */
+    public static KeysetCursor decode(String token) {
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (in.readByte() != VERSION) {
+                throw new BusinessException("Invalid cursor");
+            }
+            UserSort sort = UserSort.values()[in.readByte()];
+            long id = in.readLong();
+            String key = in.readBoolean() ? in.readUTF() : null;
+            if ((sort.getKeyExpression() == null) != (key == null)) {
+                throw new BusinessException("Invalid cursor");
+            }
+            return new KeysetCursor(sort, key, id);
+        } catch (IOException | IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new BusinessException("Invalid cursor");
+        }
+    }
+}
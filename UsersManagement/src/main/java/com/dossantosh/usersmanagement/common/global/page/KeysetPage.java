@@ -8,6 +8,11 @@ import lombok.Data;
 /**
  * Represents a paginated result using keyset pagination.
  * 
+ * The cursors are opaque {@link KeysetCursor} tokens to send back to fetch the
+ * next or previous page; the ids are kept for clients paging by id. The total
+ * is only filled in when requested, and {@code totalExact} tells whether it was
+ * counted or estimated.
+ * 
  * @param <T> the type of content items, must be Serializable
  */
 @Data
@@ -21,4 +26,10 @@ public class KeysetPage<T extends Serializable> implements Serializable {
     private Long nextId;
     private Long previousId;
 
+    private String nextCursor;
+    private String previousCursor;
+
+    private Long totalEstimate;
+    private Boolean totalExact;
+
 }
\ No newline at end of file
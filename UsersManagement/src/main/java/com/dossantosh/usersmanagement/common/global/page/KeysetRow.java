@@ -0,0 +1,12 @@
+package com.dossantosh.usersmanagement.common.global.page;
+
+/**
+ * A row returned by a keyset query together with the value of its sort key,
+ * as computed by the database, used to build the cursors of the page.
+ *
+ * @param <T>   the type of the row
+ * @param value the row
+ * @param key   the sort key of the row, null when sorting by id
+ */
+public record KeysetRow<T>(T value, String key) {
+}
@@ -0,0 +1,36 @@
+package com.dossantosh.usersmanagement.common.global.page;
+
+/**
+ * Orders supported by the keyset user search. Every order ends with the user
+ * id, so it is total and stable across pages.
+ */
+public enum UserSort {
+    /**
+     * By user id.
+     */
+    ID(null),
+    /**
+     * By lowercased username, then id.
+     */
+    USERNAME("lower(u.username) COLLATE \"C\""),
+    /**
+     * By lowercased email, then id.
+     */
+    EMAIL("lower(u.email) COLLATE \"C\"");
+
+    private final String keyExpression;
+
+    UserSort(String keyExpression) {
+        this.keyExpression = keyExpression;
+    }
+
+    /**
+     * Returns the SQL expression of the sort key, matching the expression of its
+     * composite index.
+     *
+     * @return the key expression, or null when sorting by id only
+     */
+    public String getKeyExpression() {
+        return keyExpression;
+    }
+}
@@ -0,0 +1,251 @@
+package com.dossantosh.usersmanagement.common.global.pool;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.dossantosh.usersmanagement.common.global.concurrency.DatabaseConcurrencyFilter;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resizes the Hikari pool between {@code min-size} and {@code max-size} from
+ * the measured acquire time and the share of active connections.
+ * <p>
+ * Every {@code interval} the mean time to acquire a connection since the last
+ * check is read from the {@code hikaricp.connections.acquire} timer. The
+ * maximum pool size grows by {@code step} when that mean reaches
+ * {@code target-acquire-time}, or requests are waiting for a connection, while
+ * at least {@code high-utilization} of the connections are in use. It shrinks
+ * by {@code step} after {@code shrink-after} checks in a row with no waiting,
+ * fast acquires and at most {@code low-utilization} in use. Hikari closes the
+ * connections above the new maximum as they become idle. The request budgets
+ * of the {@link DatabaseConcurrencyFilter} are scaled with the pool, so a
+ * smaller pool also admits fewer requests.
+ * </p>
+ * <p>
+ * Only one step is taken per check, so the pool follows a sustained load, not
+ * a single slow query. The last check and decision are shown on
+ * {@code /actuator/hikari}.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConfigurationProperties(prefix = "db.pool.adaptive")
+@ConditionalOnProperty(prefix = "db.pool.adaptive", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class AdaptivePoolController {
+
+    private final DataSource dataSource;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ObjectProvider<DatabaseConcurrencyFilter> databaseConcurrencyFilter;
+
+    /**
+     * Smallest maximum pool size the controller sets.
+     */
+    @Getter
+    @Setter
+    private int minSize = 10;
+
+    /**
+     * Largest maximum pool size the controller sets.
+     */
+    @Getter
+    @Setter
+    private int maxSize = 100;
+
+    /**
+     * Connections added or removed per adjustment.
+     */
+    @Getter
+    @Setter
+    private int step = 5;
+
+    /**
+     * Mean acquire time above which the pool is considered too small.
+     */
+    @Getter
+    @Setter
+    private Duration targetAcquireTime = Duration.ofMillis(5);
+
+    /**
+     * Share of connections in use from which the pool may grow.
+     */
+    @Getter
+    @Setter
+    private double highUtilization = 0.8;
+
+    /**
+     * Share of connections in use up to which the pool may shrink.
+     */
+    @Getter
+    @Setter
+    private double lowUtilization = 0.3;
+
+    /**
+     * Quiet checks in a row before the pool shrinks.
+     */
+    @Getter
+    @Setter
+    private int shrinkAfter = 6;
+
+    private HikariDataSource pool;
+
+    private long lastAcquireCount;
+
+    private double lastAcquireNanos;
+
+    private int quietChecks;
+
+    // Written by the scheduler thread only, read by the endpoint
+    private volatile long adjustments;
+
+    private volatile Map<String, Object> lastCheck = Map.of();
+
+    private volatile Map<String, Object> lastAdjustment = Map.of();
+
+    /**
+     * Finds the Hikari pool behind the data source once the properties are set.
+     *
+     * @throws SQLException if the data source is not a Hikari pool
+     */
+    @PostConstruct
+    public void init() throws SQLException {
+        if (minSize < 1 || minSize > maxSize) {
+            throw new IllegalStateException("db.pool.adaptive.min-size must be between 1 and max-size");
+        }
+        this.pool = dataSource.unwrap(HikariDataSource.class);
+    }
+
+    /**
+     * Checks the pool and grows or shrinks its maximum size by one step if
+     * needed.
+     */
+    @Scheduled(fixedDelayString = "${db.pool.adaptive.interval:10000}")
+    public void adjust() {
+        HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+        if (poolBean == null) {
+            return; // Not started yet
+        }
+        HikariConfigMXBean config = pool.getHikariConfigMXBean();
+
+        int maximum = config.getMaximumPoolSize();
+        int active = poolBean.getActiveConnections();
+        int waiting = poolBean.getThreadsAwaitingConnection();
+        double utilization = (double) active / maximum;
+        Duration acquireTime = acquireTimeSinceLastCheck(config.getPoolName());
+        boolean slow = waiting > 0 || acquireTime.compareTo(targetAcquireTime) >= 0;
+
+        int target = maximum;
+        String reason = null;
+        if (slow && utilization >= highUtilization) {
+            quietChecks = 0;
+            if (maximum < maxSize) {
+                target = Math.min(maxSize, maximum + step);
+                reason = "acquire time " + acquireTime.toMillis() + "ms, " + waiting + " waiting";
+            }
+        } else if (!slow && utilization <= lowUtilization) {
+            if (++quietChecks >= shrinkAfter && maximum > minSize) {
+                target = Math.max(minSize, maximum - step);
+                reason = quietChecks + " quiet checks";
+                quietChecks = 0;
+            }
+        } else {
+            quietChecks = 0;
+        }
+
+        Map<String, Object> check = new LinkedHashMap<>();
+        check.put("at", Instant.now().toString());
+        check.put("maximumPoolSize", maximum);
+        check.put("active", active);
+        check.put("waiting", waiting);
+        check.put("utilization", Math.round(utilization * 100) / 100.0);
+        check.put("meanAcquireTime", acquireTime.toString());
+        check.put("quietChecks", quietChecks);
+        this.lastCheck = check;
+
+        if (target != maximum) {
+            resize(config, maximum, target, reason);
+        }
+    }
+
+    private void resize(HikariConfigMXBean config, int from, int to, String reason) {
+        config.setMaximumPoolSize(to);
+        if (config.getMinimumIdle() > to) {
+            config.setMinimumIdle(to);
+        }
+        databaseConcurrencyFilter.ifAvailable(filter -> filter.scaleTo(to));
+        adjustments++;
+
+        Map<String, Object> adjustment = new LinkedHashMap<>();
+        adjustment.put("at", Instant.now().toString());
+        adjustment.put("from", from);
+        adjustment.put("to", to);
+        adjustment.put("reason", reason);
+        this.lastAdjustment = adjustment;
+
+        log.info("Resized the connection pool from {} to {} ({})", from, to, reason);
+    }
+
+    /**
+     * Mean time to acquire a connection since the previous check, from the
+     * cumulative acquire timer of the pool.
+     */
+    private Duration acquireTimeSinceLastCheck(String poolName) {
+        Timer timer = meterRegistry.find("hikaricp.connections.acquire").tag("pool", poolName).timer();
+        if (timer == null) {
+            return Duration.ZERO;
+        }
+        long count = timer.count();
+        double nanos = timer.totalTime(TimeUnit.NANOSECONDS);
+        long calls = count - lastAcquireCount;
+        double elapsed = nanos - lastAcquireNanos;
+        lastAcquireCount = count;
+        lastAcquireNanos = nanos;
+        return calls > 0 && elapsed > 0 ? Duration.ofNanos((long) (elapsed / calls)) : Duration.ZERO;
+    }
+
+    /**
+     * Returns the settings of the controller, its last check and its last
+     * adjustment.
+     *
+     * @return the state of the controller
+     */
+    public Map<String, Object> state() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("enabled", true);
+        state.put("minSize", minSize);
+        state.put("maxSize", maxSize);
+        state.put("step", step);
+        state.put("targetAcquireTime", targetAcquireTime.toString());
+        state.put("highUtilization", highUtilization);
+        state.put("lowUtilization", lowUtilization);
+        state.put("shrinkAfter", shrinkAfter);
+        state.put("adjustments", adjustments);
+        state.put("lastCheck", lastCheck);
+        state.put("lastAdjustment", lastAdjustment);
+        return state;
+    }
+}
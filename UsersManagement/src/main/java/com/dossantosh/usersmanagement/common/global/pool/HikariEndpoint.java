@@ -0,0 +1,73 @@
+package com.dossantosh.usersmanagement.common.global.pool;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.dossantosh.usersmanagement.common.global.concurrency.DatabaseConcurrencyFilter;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Actuator endpoint {@code /actuator/hikari} showing the state of the
+ * connection pool, of the {@link AdaptivePoolController} when it is enabled
+ * and of the request budgets of the {@link DatabaseConcurrencyFilter}.
+ */
+@Component
+@Endpoint(id = "hikari")
+@RequiredArgsConstructor
+public class HikariEndpoint {
+
+    private final DataSource dataSource;
+
+    private final ObjectProvider<AdaptivePoolController> adaptivePoolController;
+
+    private final ObjectProvider<DatabaseConcurrencyFilter> databaseConcurrencyFilter;
+
+    /**
+     * Returns the pool, adaptive sizing and budget state.
+     *
+     * @return the state, by section
+     * @throws SQLException if the data source is not a Hikari pool
+     */
+    @ReadOperation
+    public Map<String, Object> hikari() throws SQLException {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("pool", pool(dataSource.unwrap(HikariDataSource.class)));
+
+        AdaptivePoolController controller = adaptivePoolController.getIfAvailable();
+        state.put("adaptive", controller != null ? controller.state() : Map.of("enabled", false));
+
+        DatabaseConcurrencyFilter filter = databaseConcurrencyFilter.getIfAvailable();
+        state.put("budgets", filter != null ? filter.budgets() : Map.of());
+        return state;
+    }
+
+    private static Map<String, Object> pool(HikariDataSource hikari) {
+        HikariConfigMXBean config = hikari.getHikariConfigMXBean();
+        Map<String, Object> pool = new LinkedHashMap<>();
+        pool.put("name", config.getPoolName());
+        pool.put("maximumPoolSize", config.getMaximumPoolSize());
+        pool.put("minimumIdle", config.getMinimumIdle());
+        pool.put("connectionTimeout", config.getConnectionTimeout());
+
+        HikariPoolMXBean poolBean = hikari.getHikariPoolMXBean();
+        if (poolBean != null) {
+            pool.put("total", poolBean.getTotalConnections());
+            pool.put("active", poolBean.getActiveConnections());
+            pool.put("idle", poolBean.getIdleConnections());
+            pool.put("waiting", poolBean.getThreadsAwaitingConnection());
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,289 @@
+package com.dossantosh.usersmanagement.common.security.custom.auth;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable set of permission ids (roles, modules or submodules) backed by a
+ * bitmap of {@code long} words, id {@code n} being bit {@code n - 1}.
+ * <p>
+ * {@link #contains(long)} tests a bit without boxing or allocating, and the set
+ * can be shared freely between threads and cached principals. It is a read-only
+ * {@code Set<Long>} for the code that only iterates the ids; every mutator
+ * throws {@link UnsupportedOperationException}.
+ * </p>
+ * <p>
+ * A set holding an id above {@link #MAX_ID}, whose bitmap would be too large,
+ * keeps its ids in a sorted array instead and searches it. Such a set has no
+ * mask, so its user is read through the id lists.
+ * </p>
+ */
+public final class PermissionSet extends AbstractSet<Long> {
+
+    /**
+     * The set without any id.
+     */
+    public static final PermissionSet EMPTY = new PermissionSet(new long[0], null);
+
+    /**
+     * Highest id kept in a bitmap, which bounds the bitmap to 8 KB.
+     */
+    public static final long MAX_ID = 1 << 16;
+
+    private final long[] words;
+
+    // Sorted ids of a set holding an id above MAX_ID, null for a bitmap
+    private final long[] ids;
+
+    private final int size;
+
+    private PermissionSet(long[] words, long[] ids) {
+        this.words = words;
+        this.ids = ids;
+        int count = 0;
+        if (ids != null) {
+            count = ids.length;
+        } else {
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+        }
+        this.size = count;
+    }
+
+    /**
+     * Builds the set of the given ids.
+     *
+     * @param ids the ids, all of them positive
+     * @return the set of ids
+     * @throws IllegalArgumentException if an id is not positive
+     */
+    public static PermissionSet of(long... ids) {
+        if (ids.length == 0) {
+            return EMPTY;
+        }
+        long max = 0;
+        for (long id : ids) {
+            max = Math.max(max, checkId(id));
+        }
+        if (max > MAX_ID) {
+            return new PermissionSet(null, Arrays.stream(ids).sorted().distinct().toArray());
+        }
+        long[] words = new long[wordIndex(max) + 1];
+        for (long id : ids) {
+            words[wordIndex(id)] |= bit(id);
+        }
+        return new PermissionSet(words, null);
+    }
+
+    /**
+     * Builds the set of the given ids. Another {@code PermissionSet} is returned
+     * as is.
+     *
+     * @param ids the ids, may be null
+     * @return the set of ids
+     * @throws IllegalArgumentException if an id is null or not positive
+     */
+    public static PermissionSet of(Collection<Long> ids) {
+        if (ids instanceof PermissionSet permissionSet) {
+            return permissionSet;
+        }
+        if (ids == null || ids.isEmpty()) {
+            return EMPTY;
+        }
+        long[] values = new long[ids.size()];
+        int i = 0;
+        for (Long id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("Permission ids cannot be null");
+            }
+            values[i++] = id;
+        }
+        return of(values);
+    }
+
+    /**
+     * Builds the set of the ids in a single-word mask, as stored in
+     * {@code user_permissions}.
+     *
+     * @param mask the mask
+     * @return the set of ids whose bit is set
+     */
+    public static PermissionSet fromMask(long mask) {
+        return mask == 0 ? EMPTY : new PermissionSet(new long[] { mask }, null);
+    }
+
+    /**
+     * Builds the set from its words, as returned by {@link #toWords()}.
+     *
+     * @param words the bitmap words
+     * @return the set of ids whose bit is set
+     */
+    public static PermissionSet fromWords(long[] words) {
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0) {
+            length--;
+        }
+        return length == 0 ? EMPTY : new PermissionSet(Arrays.copyOf(words, length), null);
+    }
+
+    /**
+     * Checks whether the id is in the set, without allocating.
+     *
+     * @param id the id
+     * @return true if the id is in the set
+     */
+    public boolean contains(long id) {
+        if (id < 1) {
+            return false;
+        }
+        if (ids != null) {
+            return Arrays.binarySearch(ids, id) >= 0;
+        }
+        int index = wordIndex(id);
+        return index < words.length && (words[index] & bit(id)) != 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Long id && contains(id.longValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the ids in ascending order.
+     *
+     * @return an iterator over the ids
+     */
+    @Override
+    public Iterator<Long> iterator() {
+        if (ids != null) {
+            return Arrays.stream(ids).iterator();
+        }
+        return new Iterator<>() {
+
+            private int index = 0;
+
+            private long remaining = words.length == 0 ? 0 : words[0];
+
+            @Override
+            public boolean hasNext() {
+                while (remaining == 0 && index < words.length - 1) {
+                    remaining = words[++index];
+                }
+                return remaining != 0;
+            }
+
+            @Override
+            public Long next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                long id = (long) index * Long.SIZE + Long.numberOfTrailingZeros(remaining) + 1;
+                remaining &= remaining - 1;
+                return id;
+            }
+        };
+    }
+
+    /**
+     * Returns the set as a single-word mask.
+     *
+     * @return the mask, or null if an id is greater than 64
+     */
+    public Long toMask() {
+        if (ids != null || words.length > 1) {
+            return null;
+        }
+        return words.length == 0 ? 0L : words[0];
+    }
+
+    /**
+     * Returns a copy of the bitmap words.
+     *
+     * @return the words, without trailing zero words, or null if an id is
+     *         greater than {@link #MAX_ID}
+     */
+    public long[] toWords() {
+        return ids != null ? null : words.clone();
+    }
+
+    /**
+     * Returns the ids as a sorted array.
+     *
+     * @return the ids in ascending order
+     */
+    public long[] toIds() {
+        if (ids != null) {
+            return ids.clone();
+        }
+        long[] values = new long[size];
+        int i = 0;
+        for (Long id : this) {
+            values[i++] = id;
+        }
+        return values;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof PermissionSet other) {
+            return Arrays.equals(words, other.words) && Arrays.equals(ids, other.ids);
+        }
+        return super.equals(o);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        // Same value as AbstractSet#hashCode, without boxing every id
+        int hash = 0;
+        if (ids != null) {
+            for (long id : ids) {
+                hash += Long.hashCode(id);
+            }
+            return hash;
+        }
+        for (int index = 0; index < words.length; index++) {
+            long remaining = words[index];
+            while (remaining != 0) {
+                hash += Long.hashCode((long) index * Long.SIZE + Long.numberOfTrailingZeros(remaining) + 1);
+                remaining &= remaining - 1;
+            }
+        }
+        return hash;
+    }
+
+    private static long checkId(long id) {
+        if (id < 1) {
+            throw new IllegalArgumentException("Permission id out of range: " + id);
+        }
+        return id;
+    }
+
+    private static int wordIndex(long id) {
+        return (int) ((id - 1) >>> 6);
+    }
+
+    private static long bit(long id) {
+        return 1L << (id - 1);
+    }
+}
@@ -5,40 +5,117 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedHashSet;
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Custom implementation of Spring Security's {@link UserDetails}
  * representing authenticated user details including roles and permissions.
+ * <p>
+ * Roles, modules and submodules are immutable {@link PermissionSet} bitmaps,
+ * checked without allocating through {@link #hasRole(long)},
+ * {@link #hasModule(long)} and {@link #hasSubmodule(long)}. The authorities are
+ * built once when the roles are set, from instances shared by every user.
+ * </p>
  */
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 public class UserAuth implements UserDetails {
 
+    /**
+     * One authority instance per role id, shared by every principal.
+     */
+    private static final ConcurrentMap<Long, GrantedAuthority> ROLE_AUTHORITIES = new ConcurrentHashMap<>();
+
     private Long id;
     private String username;
     private String email;
     private String password;
     private Boolean enabled;
     private Boolean isAdmin;
-    private LinkedHashSet<Long> roles = new LinkedHashSet<>();
-    private LinkedHashSet<Long> modules = new LinkedHashSet<>();
-    private LinkedHashSet<Long> submodules = new LinkedHashSet<>();
+    private PermissionSet roles = PermissionSet.EMPTY;
+    private PermissionSet modules = PermissionSet.EMPTY;
+    private PermissionSet submodules = PermissionSet.EMPTY;
+
+    @Setter(AccessLevel.NONE)
+    private List<GrantedAuthority> authorities = List.of();
+
+    /**
+     * Sets the roles of the user and rebuilds its authorities.
+     * 
+     * @param roles the role ids, may be null
+     */
+    public void setRoles(Collection<Long> roles) {
+        this.roles = PermissionSet.of(roles);
+
+        List<GrantedAuthority> granted = new ArrayList<>(this.roles.size());
+        for (Long role : this.roles) {
+            granted.add(ROLE_AUTHORITIES.computeIfAbsent(role, key -> new SimpleGrantedAuthority("" + key)));
+        }
+        this.authorities = List.copyOf(granted);
+    }
+
+    /**
+     * Sets the modules of the user.
+     * 
+     * @param modules the module ids, may be null
+     */
+    public void setModules(Collection<Long> modules) {
+        this.modules = PermissionSet.of(modules);
+    }
+
+    /**
+     * Sets the submodules of the user.
+     * 
+     * @param submodules the submodule ids, may be null
+     */
+    public void setSubmodules(Collection<Long> submodules) {
+        this.submodules = PermissionSet.of(submodules);
+    }
+
+    /**
+     * Checks whether the user has the role.
+     * 
+     * @param roleId the role id
+     * @return true if the user has the role
+     */
+    public boolean hasRole(long roleId) {
+        return roles.contains(roleId);
+    }
+
+    /**
+     * Checks whether the user has access to the module.
+     * 
+     * @param moduleId the module id
+     * @return true if the user has the module
+     */
+    public boolean hasModule(long moduleId) {
+        return modules.contains(moduleId);
+    }
+
+    /**
+     * Checks whether the user has access to the submodule.
+     * 
+     * @param submoduleId the submodule id
+     * @return true if the user has the submodule
+     */
+    public boolean hasSubmodule(long submoduleId) {
+        return submodules.contains(submoduleId);
+    }
 
     /**
      * Returns authorities granted to the user, based on roles.
+     * The list is built when the roles are set and is immutable.
      * 
      * @return collection of granted authorities
      */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return roles.stream()
-                .map(role -> new SimpleGrantedAuthority("" + role))
-                .collect(Collectors.toList());
+        return authorities;
     }
 
     /**
@@ -0,0 +1,27 @@
+package com.dossantosh.usersmanagement.common.security.custom.auth;
+
+/**
+ * Projection interface to fetch essential user authentication data with the
+ * permissions as bit masks (see {@link PermissionSet#fromMask(long)}).
+ * The masks are null when the user has no {@code user_permissions} row or its
+ * ids do not fit in a mask.
+ */
+public interface UserAuthMaskProjection {
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    String getPassword();
+
+    Boolean getEnabled();
+
+    Boolean getIsAdmin();
+
+    Long getRolesMask();
+
+    Long getModulesMask();
+
+    Long getSubmodulesMask();
+}
@@ -4,9 +4,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuthProjection;
 import com.dossantosh.usersmanagement.services.UserService;
 
 import lombok.RequiredArgsConstructor;
@@ -14,6 +12,8 @@ import lombok.RequiredArgsConstructor;
 /**
  * Custom implementation of {@link UserDetailsService} that loads user-specific data
  * for authentication purposes using a user service.
+ * Logins read the password hash from the database, while token requests are
+ * served from the {@link UserAuthCache}, whose shared layer never stores it.
  */
 @RequiredArgsConstructor
 @Service
@@ -21,16 +21,30 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserService userService;
 
+    private final UserAuthCache userAuthCache;
+
     /**
-     * Locates the user based on the username.
+     * Locates the user based on the username, with its password hash, for the
+     * authentication manager. Always read from the database.
      *
      * @param username the username identifying the user whose data is required.
      * @return a fully populated {@link UserDetails} object (never null).
      */
-    @Transactional(readOnly = true)
     @Override
     public UserDetails loadUserByUsername(String username) {
-        UserAuthProjection userAuthProjection = userService.findUserAuthByUsername(username);
-        return userService.mapToUserAuth(userAuthProjection);
+        return userService.loadUserAuth(username);
+    }
+
+    /**
+     * Locates the principal of an already authenticated user, such as the
+     * subject of a token. Principals read from the shared cache carry no
+     * password. Not transactional on purpose: a cache hit must not check out a
+     * connection.
+     *
+     * @param username the username identifying the user whose data is required.
+     * @return the principal (never null).
+     */
+    public UserDetails loadPrincipal(String username) {
+        return userAuthCache.get(username, userService::loadUserAuth);
     }
 }
@@ -0,0 +1,75 @@
+package com.dossantosh.usersmanagement.common.security.custom.auth.bus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuth;
+
+/**
+ * In-memory stand-in for the Redis shared principal cache.
+ * <p>
+ * Stores principals in their encoded form and broadcasts evictions to the
+ * listeners of this JVM, so single-node deployments and tests exercise the
+ * same code path as the Redis implementation without a Redis server.
+ * </p>
+ */
+public class InMemorySharedUserAuthCache implements SharedUserAuthCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    private final Duration ttl;
+
+    /**
+     * Creates the cache.
+     *
+     * @param ttl time a principal stays shared after being stored
+     */
+    public InMemorySharedUserAuthCache(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    @Override
+    public UserAuth get(String username) {
+        Entry entry = entries.get(username);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(username, entry);
+            return null;
+        }
+        return UserAuthCodec.decode(entry.data());
+    }
+
+    @Override
+    public void put(UserAuth userAuth) {
+        entries.put(userAuth.getUsername(),
+                new Entry(UserAuthCodec.encode(userAuth), System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    @Override
+    public void evict(String username) {
+        entries.remove(username);
+        listeners.forEach(listener -> listener.accept(username));
+    }
+
+    @Override
+    public void evictAll() {
+        entries.clear();
+        listeners.forEach(listener -> listener.accept(EVICT_ALL));
+    }
+
+    @Override
+    public void addEvictionListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    private record Entry(byte[] data, long expiresAt) {
+    }
+}
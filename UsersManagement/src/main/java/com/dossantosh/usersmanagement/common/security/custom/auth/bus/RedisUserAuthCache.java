@@ -0,0 +1,125 @@
+package com.dossantosh.usersmanagement.common.security.custom.auth.bus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuth;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Redis implementation of the shared principal cache.
+ * <p>
+ * Principals are stored with {@link UserAuthCodec} under
+ * {@code <keyPrefix><username>} with a TTL, and evictions are published on a
+ * pub/sub channel this class also listens to. Redis failures never fail a
+ * request: reads fall back to the database and the TTL bounds staleness when an
+ * eviction cannot be published.
+ * </p>
+ */
+@Slf4j
+public class RedisUserAuthCache implements SharedUserAuthCache, MessageListener {
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+
+    private final SharedUserAuthCacheProperties properties;
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates the cache.
+     *
+     * @param redisTemplate template with string keys and raw byte values
+     * @param properties    the shared cache settings
+     */
+    public RedisUserAuthCache(RedisTemplate<String, byte[]> redisTemplate, SharedUserAuthCacheProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+    }
+
+    @Override
+    public UserAuth get(String username) {
+        try {
+            byte[] data = redisTemplate.opsForValue().get(key(username));
+            return data == null ? null : UserAuthCodec.decode(data);
+        } catch (DataAccessException | IllegalArgumentException e) {
+            log.warn("Shared principal cache read failed for {}: {}", username, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void put(UserAuth userAuth) {
+        try {
+            redisTemplate.opsForValue().set(key(userAuth.getUsername()), UserAuthCodec.encode(userAuth),
+                    properties.getTtl());
+        } catch (DataAccessException e) {
+            log.warn("Shared principal cache write failed for {}: {}", userAuth.getUsername(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void evict(String username) {
+        try {
+            redisTemplate.delete(key(username));
+            publish(username);
+        } catch (DataAccessException e) {
+            log.error("Shared principal cache eviction failed for {}, other nodes keep it up to {}: {}",
+                    username, properties.getTtl(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        try {
+            ScanOptions options = ScanOptions.scanOptions().match(properties.getKeyPrefix() + "*").count(500).build();
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                try (Cursor<byte[]> keys = connection.keyCommands().scan(options)) {
+                    while (keys.hasNext()) {
+                        connection.keyCommands().del(keys.next());
+                    }
+                }
+                return null;
+            });
+            publish(EVICT_ALL);
+        } catch (DataAccessException e) {
+            log.error("Shared principal cache clear failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void addEvictionListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Receives eviction broadcasts from every node and forwards them to the local
+     * listeners.
+     *
+     * @param message the message whose body is the evicted username
+     * @param pattern the matched pattern, unused
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String username = new String(message.getBody(), StandardCharsets.UTF_8);
+        listeners.forEach(listener -> listener.accept(username));
+    }
+
+    private void publish(String username) {
+        redisTemplate.convertAndSend(properties.getChannel(), username.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String key(String username) {
+        return properties.getKeyPrefix() + username;
+    }
+}
@@ -0,0 +1,56 @@
+package com.dossantosh.usersmanagement.common.security.custom.auth.bus;
+
+import java.util.function.Consumer;
+
+import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuth;
+
+/**
+ * Second-level principal cache shared by every replica of the service.
+ * <p>
+ * Sits behind the in-process {@link UserAuthCache}: a local miss is served
+ * from here before going to the database, and an eviction here is broadcast so
+ * every node drops its local copy.
+ * </p>
+ */
+public interface SharedUserAuthCache {
+
+    /**
+     * Message broadcast to evict every principal instead of a single username.
+     */
+    String EVICT_ALL = "*";
+
+    /**
+     * Returns the shared principal for the username.
+     *
+     * @param username the username identifying the user
+     * @return the principal, or null if it is not cached
+     */
+    UserAuth get(String username);
+
+    /**
+     * Stores the principal for other nodes to reuse.
+     *
+     * @param userAuth the principal loaded from the database
+     */
+    void put(UserAuth userAuth);
+
+    /**
+     * Removes the principal and tells every node to evict its local copy.
+     *
+     * @param username the username whose principal is stale
+     */
+    void evict(String username);
+
+    /**
+     * Removes every principal and tells every node to clear its local cache.
+     */
+    void evictAll();
+
+    /**
+     * Registers a listener notified with the username of every eviction
+     * broadcast, including those sent by this node, or {@link #EVICT_ALL}.
+     *
+     * @param listener the listener evicting the local copy
+     */
+    void addEvictionListener(Consumer<String> listener);
+}
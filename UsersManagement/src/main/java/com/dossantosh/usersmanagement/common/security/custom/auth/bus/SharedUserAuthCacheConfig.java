@@ -0,0 +1,85 @@
+package com.dossantosh.usersmanagement.common.security.custom.auth.bus;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Configuration of the shared principal cache selected by
+ * {@code auth.cache.shared.type}. No bean is defined for {@code none}, and the
+ * {@link UserAuthCache} then works as a purely local cache.
+ */
+@Configuration(proxyBeanMethods = false)
+public class SharedUserAuthCacheConfig {
+
+    /**
+     * In-memory stand-in used by single-node deployments and tests.
+     *
+     * @param properties the shared cache settings
+     * @return the in-memory shared cache
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "auth.cache.shared", name = "type", havingValue = "memory")
+    public SharedUserAuthCache inMemorySharedUserAuthCache(SharedUserAuthCacheProperties properties) {
+        return new InMemorySharedUserAuthCache(properties.getTtl());
+    }
+
+    /**
+     * Redis-backed shared cache with pub/sub invalidation across replicas.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "auth.cache.shared", name = "type", havingValue = "redis")
+    static class RedisSharedUserAuthCacheConfig {
+
+        /**
+         * Template storing principals as raw bytes under string keys.
+         *
+         * @param connectionFactory the Redis connection factory
+         * @return the template used by the shared cache
+         */
+        @Bean
+        public RedisTemplate<String, byte[]> userAuthRedisTemplate(RedisConnectionFactory connectionFactory) {
+            RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+            template.setConnectionFactory(connectionFactory);
+            template.setKeySerializer(RedisSerializer.string());
+            template.setValueSerializer(RedisSerializer.byteArray());
+            template.setEnableDefaultSerializer(false);
+            return template;
+        }
+
+        /**
+         * The Redis shared cache.
+         *
+         * @param userAuthRedisTemplate the byte template
+         * @param properties            the shared cache settings
+         * @return the Redis shared cache
+         */
+        @Bean
+        public RedisUserAuthCache redisUserAuthCache(RedisTemplate<String, byte[]> userAuthRedisTemplate,
+                SharedUserAuthCacheProperties properties) {
+            return new RedisUserAuthCache(userAuthRedisTemplate, properties);
+        }
+
+        /**
+         * Subscribes the shared cache to the eviction channel.
+         *
+         * @param connectionFactory  the Redis connection factory
+         * @param redisUserAuthCache the listener
+         * @param properties         the shared cache settings
+         * @return the listener container
+         */
+        @Bean
+        public RedisMessageListenerContainer userAuthEvictionListenerContainer(RedisConnectionFactory connectionFactory,
+                RedisUserAuthCache redisUserAuthCache, SharedUserAuthCacheProperties properties) {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.addMessageListener(redisUserAuthCache, new ChannelTopic(properties.getChannel()));
+            return container;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.dossantosh.usersmanagement.common.security.custom.auth.bus;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Configuration properties for the shared (second-level) principal cache.
+ *
+ * Maps properties with prefix 'auth.cache.shared' from application properties or YAML.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "auth.cache.shared")
+public class SharedUserAuthCacheProperties {
+
+    /**
+     * Shared cache implementation: none, memory (single node and tests) or redis.
+     */
+    private String type = "none";
+
+    /**
+     * Time a principal stays in the shared cache after being loaded.
+     */
+    private Duration ttl = Duration.ofMinutes(30);
+
+    /**
+     * Prefix of the Redis keys holding the encoded principals.
+     */
+    private String keyPrefix = "users:auth:";
+
+    /**
+     * Redis pub/sub channel used to broadcast evictions to every node.
+     */
+    private String channel = "users:auth:evict";
+}
@@ -0,0 +1,172 @@
+package com.dossantosh.usersmanagement.common.security.custom.auth.bus;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.dossantosh.usersmanagement.common.global.cache.CacheLoads;
+import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuth;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * In-process cache of {@link UserAuth} principals keyed by username.
+ * <p>
+ * Bounded in size and time, and instrumented with hit/miss metrics under the
+ * {@code userAuth} cache name. Every write to a user must evict its entry so
+ * that a disabled user or a permission change takes effect immediately.
+ * Misses are loaded by the calling thread outside the lock of the cache (see
+ * {@link CacheLoads}), so a virtual thread loading a principal never pins its
+ * carrier.
+ * </p>
+ * <p>
+ * When a {@link SharedUserAuthCache} is configured it acts as a second level:
+ * local misses are served from it before the database, and evictions are
+ * broadcast through it so every replica drops its local copy.
+ * </p>
+ */
+@Component
+@ConfigurationProperties(prefix = "auth.cache")
+@RequiredArgsConstructor
+public class UserAuthCache {
+
+    private final MeterRegistry meterRegistry;
+
+    private final ObjectProvider<SharedUserAuthCache> sharedCacheProvider;
+
+    /**
+     * Whether principals are cached at all.
+     */
+    @Getter
+    @Setter
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of principals kept in memory.
+     */
+    @Getter
+    @Setter
+    private long maximumSize = 10_000;
+
+    /**
+     * Time a principal stays cached after being loaded.
+     */
+    @Getter
+    @Setter
+    private Duration ttl = Duration.ofMinutes(5);
+
+    private AsyncCache<String, UserAuth> cache;
+
+    private SharedUserAuthCache sharedCache;
+
+    /**
+     * Builds the cache, binds its statistics to the meter registry and listens to
+     * the evictions broadcast by the shared cache once the properties are set.
+     */
+    @PostConstruct
+    public void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userAuth");
+
+        this.sharedCache = sharedCacheProvider.getIfAvailable();
+        if (sharedCache != null) {
+            sharedCache.addEvictionListener(this::evictLocal);
+        }
+    }
+
+    /**
+     * Returns the cached principal for the username, loading it on a miss.
+     *
+     * @param username the username identifying the user
+     * @param loader   function loading the principal from the database
+     * @return the principal of the user
+     */
+    public UserAuth get(String username, Function<String, UserAuth> loader) {
+        if (!enabled) {
+            return loader.apply(username);
+        }
+        if (sharedCache == null) {
+            return CacheLoads.getOrLoad(cache, username, loader);
+        }
+        return CacheLoads.getOrLoad(cache, username, key -> loadShared(key, loader));
+    }
+
+    private UserAuth loadShared(String username, Function<String, UserAuth> loader) {
+        UserAuth userAuth = sharedCache.get(username);
+        if (userAuth == null) {
+            userAuth = loader.apply(username);
+            sharedCache.put(userAuth);
+        }
+        return userAuth;
+    }
+
+    /**
+     * Evicts the principal of the username. When called inside a transaction the
+     * entry is evicted again after commit, so a concurrent request cannot
+     * re-cache the data that was just overwritten.
+     *
+     * @param username the username whose principal is stale, may be null
+     */
+    public void evict(String username) {
+        if (username == null) {
+            return;
+        }
+
+        invalidate(username);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(username);
+                }
+            });
+        }
+    }
+
+    /**
+     * Evicts every cached principal, on every node when the cache is shared.
+     */
+    public void evictAll() {
+        cache.synchronous().invalidateAll();
+        if (sharedCache != null) {
+            sharedCache.evictAll();
+        }
+    }
+
+    private void invalidate(String username) {
+        cache.synchronous().invalidate(username);
+        if (sharedCache != null) {
+            sharedCache.evict(username);
+        }
+    }
+
+    /**
+     * Evicts the local copy only, in response to a broadcast eviction.
+     *
+     * @param username the evicted username, or {@link SharedUserAuthCache#EVICT_ALL}
+     */
+    private void evictLocal(String username) {
+        if (SharedUserAuthCache.EVICT_ALL.equals(username)) {
+            cache.synchronous().invalidateAll();
+        } else {
+            cache.synchronous().invalidate(username);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.dossantosh.usersmanagement.common.security.custom.auth.bus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.dossantosh.usersmanagement.common.security.custom.auth.PermissionSet;
+import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuth;
+
+/**
+ * Compact binary codec for {@link UserAuth} used by the shared principal cache.
+ * <p>
+ * Layout: a version byte, the id, the nullable username and email, the
+ * nullable flags as tri-state bytes and the three {@link PermissionSet}s, each
+ * as a varint header followed by varints: the header is the count shifted left
+ * by one, its low bit clear for bitmap words and set for the sorted ids of a
+ * set beyond {@link PermissionSet#MAX_ID}. The password hash is left out, so
+ * the shared cache never holds one. A typical principal takes around a hundred
+ * bytes, far less than its Java serialized form, and the format does not
+ * depend on class layout.
+ * </p>
+ */
+public final class UserAuthCodec {
+
+    private static final byte VERSION = 1;
+
+    private UserAuthCodec() {
+    }
+
+    /**
+     * Encodes the principal into its binary form, without its password.
+     *
+     * @param userAuth the principal to encode
+     * @return the encoded bytes
+     */
+    public static byte[] encode(UserAuth userAuth) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(userAuth.getId());
+            writeString(out, userAuth.getUsername());
+            writeString(out, userAuth.getEmail());
+            writeBoolean(out, userAuth.getEnabled());
+            writeBoolean(out, userAuth.getIsAdmin());
+            writeIds(out, userAuth.getRoles());
+            writeIds(out, userAuth.getModules());
+            writeIds(out, userAuth.getSubmodules());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a principal from its binary form.
+     *
+     * @param data the encoded bytes
+     * @return the decoded principal, with a null password
+     * @throws IllegalArgumentException if the data was written with an unknown
+     *                                  format version
+     */
+    public static UserAuth decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported UserAuth encoding version " + version);
+            }
+
+            UserAuth userAuth = new UserAuth();
+            userAuth.setId(in.readLong());
+            userAuth.setUsername(readString(in));
+            userAuth.setEmail(readString(in));
+            userAuth.setEnabled(readBoolean(in));
+            userAuth.setIsAdmin(readBoolean(in));
+            userAuth.setRoles(readIds(in));
+            userAuth.setModules(readIds(in));
+            userAuth.setSubmodules(readIds(in));
+            return userAuth;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeBoolean(DataOutputStream out, Boolean value) throws IOException {
+        out.writeByte(value == null ? 0 : value ? 2 : 1);
+    }
+
+    private static Boolean readBoolean(DataInputStream in) throws IOException {
+        byte value = in.readByte();
+        return value == 0 ? null : value == 2;
+    }
+
+    private static void writeIds(DataOutputStream out, PermissionSet ids) throws IOException {
+        long[] words = ids.toWords();
+        long[] values = words != null ? words : ids.toIds();
+        writeVarLong(out, ((long) values.length << 1) | (words != null ? 0 : 1));
+        for (long value : values) {
+            writeVarLong(out, value);
+        }
+    }
+
+    private static PermissionSet readIds(DataInputStream in) throws IOException {
+        long header = readVarLong(in);
+        boolean idList = (header & 1) != 0;
+        int size = (int) (header >>> 1);
+        long[] values = new long[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = readVarLong(in);
+        }
+        return idList ? PermissionSet.of(values) : PermissionSet.fromWords(values);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -1,9 +1,10 @@
 package com.dossantosh.usersmanagement.common.security.custom.auth.bus;
 
-import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * Service interface to provide contextual information about the currently authenticated user.
+ * The permission sets are read-only views of the principal, never copies.
  */
 public interface UserContextService {
     Long getId();
@@ -14,9 +15,15 @@ public interface UserContextService {
 
     Boolean isAdmin();
 
-    LinkedHashSet<Long> getRoles();
+    Set<Long> getRoles();
 
-    LinkedHashSet<Long> getModules();
+    Set<Long> getModules();
 
-    LinkedHashSet<Long> getSubmodules();
+    Set<Long> getSubmodules();
+
+    boolean hasRole(long roleId);
+
+    boolean hasModule(long moduleId);
+
+    boolean hasSubmodule(long submoduleId);
 }
\ No newline at end of file
@@ -4,10 +4,10 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import com.dossantosh.usersmanagement.common.security.custom.auth.PermissionSet;
 import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuth;
 
-import java.util.LinkedHashSet;
-import java.util.Optional;
+import java.util.Set;
 
 /**
  * Implementation of {@link UserContextService} that retrieves
@@ -21,7 +21,8 @@ public final class UserContextServiceImpl implements UserContextService {
      */
     @Override
     public Long getId() {
-        return getUserAuth().map(UserAuth::getId).orElse(null);
+        UserAuth userAuth = getUserAuth();
+        return userAuth == null ? null : userAuth.getId();
     }
 
     /**
@@ -29,7 +30,8 @@ public final class UserContextServiceImpl implements UserContextService {
      */
     @Override
     public String getUsername() {
-        return getUserAuth().map(UserAuth::getUsername).orElse(null);
+        UserAuth userAuth = getUserAuth();
+        return userAuth == null ? null : userAuth.getUsername();
     }
 
     /**
@@ -37,34 +39,62 @@ public final class UserContextServiceImpl implements UserContextService {
      */
     @Override
     public Boolean getEnabled() {
-        return getUserAuth().map(UserAuth::getEnabled).orElse(Boolean.FALSE);
+        UserAuth userAuth = getUserAuth();
+        return userAuth == null ? Boolean.FALSE : userAuth.getEnabled();
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public LinkedHashSet<Long> getRoles() {
-        return new LinkedHashSet<>(
-                getUserAuth().map(UserAuth::getRoles).orElse(new LinkedHashSet<>()));
+    public Set<Long> getRoles() {
+        UserAuth userAuth = getUserAuth();
+        return userAuth == null ? PermissionSet.EMPTY : userAuth.getRoles();
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public LinkedHashSet<Long> getModules() {
-        return new LinkedHashSet<>(
-                getUserAuth().map(UserAuth::getModules).orElse(new LinkedHashSet<>()));
+    public Set<Long> getModules() {
+        UserAuth userAuth = getUserAuth();
+        return userAuth == null ? PermissionSet.EMPTY : userAuth.getModules();
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public LinkedHashSet<Long> getSubmodules() {
-        return new LinkedHashSet<>(
-                getUserAuth().map(UserAuth::getSubmodules).orElse(new LinkedHashSet<>()));
+    public Set<Long> getSubmodules() {
+        UserAuth userAuth = getUserAuth();
+        return userAuth == null ? PermissionSet.EMPTY : userAuth.getSubmodules();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasRole(long roleId) {
+        UserAuth userAuth = getUserAuth();
+        return userAuth != null && userAuth.hasRole(roleId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasModule(long moduleId) {
+        UserAuth userAuth = getUserAuth();
+        return userAuth != null && userAuth.hasModule(moduleId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasSubmodule(long submoduleId) {
+        UserAuth userAuth = getUserAuth();
+        return userAuth != null && userAuth.hasSubmodule(submoduleId);
     }
 
     /**
@@ -72,22 +102,21 @@ public final class UserContextServiceImpl implements UserContextService {
      */
     @Override
     public Boolean isAdmin() {
-        return getUserAuth()
-                .map(UserAuth::getIsAdmin)
-                .orElse(Boolean.FALSE);
+        UserAuth userAuth = getUserAuth();
+        return userAuth == null ? Boolean.FALSE : userAuth.getIsAdmin();
     }
     
     /**
      * Helper method to retrieve the {@link UserAuth} object from
      * the Spring Security context.
      *
-     * @return an Optional containing the UserAuth if present and authenticated, otherwise empty
+     * @return the UserAuth if present and authenticated, otherwise null
      */
-    private static Optional<UserAuth> getUserAuth() {
+    private static UserAuth getUserAuth() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth != null && auth.isAuthenticated() && auth.getPrincipal() instanceof UserAuth userAuth) {
-            return Optional.of(userAuth);
+            return userAuth;
         }
-        return Optional.empty();
+        return null;
     }
 }
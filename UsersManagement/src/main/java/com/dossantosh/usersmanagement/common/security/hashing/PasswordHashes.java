@@ -0,0 +1,25 @@
+package com.dossantosh.usersmanagement.common.security.hashing;
+
+import java.util.regex.Pattern;
+
+/**
+ * Helpers for password hashes supplied by clients instead of plain passwords.
+ */
+public final class PasswordHashes {
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./A-Za-z0-9]{53}$");
+
+    private PasswordHashes() {
+    }
+
+    /**
+     * Checks whether the value has the shape of a BCrypt hash, the only format
+     * the password encoder can verify.
+     *
+     * @param value the value to check, may be null
+     * @return true if the value is a BCrypt hash
+     */
+    public static boolean isBCryptHash(String value) {
+        return value != null && BCRYPT_HASH.matcher(value).matches();
+    }
+}
@@ -0,0 +1,121 @@
+package com.dossantosh.usersmanagement.common.security.hashing;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.dossantosh.usersmanagement.common.global.errors.custom.TooManyRequestsException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Bounded executor running password verifications off the servlet threads.
+ * <p>
+ * BCrypt is CPU-bound by design, so the pool is sized to the cores and its
+ * queue is bounded: once both are full new logins are rejected with a
+ * {@link TooManyRequestsException} (HTTP 429) instead of piling up and
+ * starving the rest of the API of request threads.
+ * </p>
+ * <p>
+ * Queue depth, active threads and completed tasks are published as
+ * {@code executor.*} meters tagged {@code name=auth.hashing}, the time of each
+ * verification as {@code auth.hashing.duration} and the rejections as
+ * {@code auth.hashing.rejected}.
+ * </p>
+ */
+@Component
+@ConfigurationProperties(prefix = "auth.hashing")
+@RequiredArgsConstructor
+public class PasswordHashingExecutor {
+
+    private static final String METRIC_NAME = "auth.hashing";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Number of threads verifying passwords, defaults to the number of cores.
+     */
+    @Getter
+    @Setter
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Verifications allowed to wait for a thread before new ones are rejected.
+     */
+    @Getter
+    @Setter
+    private int queueCapacity = 64;
+
+    /**
+     * Seconds a rejected client is advised to wait before retrying.
+     */
+    @Getter
+    @Setter
+    private long retryAfterSeconds = 1;
+
+    private ThreadPoolExecutor executor;
+
+    private Timer hashTimer;
+
+    private Counter rejectedCounter;
+
+    /**
+     * Builds the pool and binds its meters once the properties are set.
+     */
+    @PostConstruct
+    public void init() {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hashing-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartAllCoreThreads();
+
+        new ExecutorServiceMetrics(executor, METRIC_NAME, List.of()).bindTo(meterRegistry);
+        this.hashTimer = Timer.builder(METRIC_NAME + ".duration")
+                .description("Time spent verifying a password")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder(METRIC_NAME + ".rejected")
+                .description("Password verifications rejected because the executor was saturated")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the verification on the hashing pool.
+     *
+     * @param <T>          the result type
+     * @param verification the work performing the password check
+     * @return a future completed with the result of the verification
+     * @throws TooManyRequestsException if the pool and its queue are full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> verification) {
+        try {
+            return CompletableFuture.supplyAsync(() -> hashTimer.record(verification), executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new TooManyRequestsException("Too many concurrent logins, retry later", retryAfterSeconds);
+        }
+    }
+
+    /**
+     * Stops accepting verifications on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
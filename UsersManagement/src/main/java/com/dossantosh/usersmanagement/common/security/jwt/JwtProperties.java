@@ -22,6 +22,17 @@ public class JwtProperties {
      */
     private long expiration;
 
+    /**
+     * Whether the principal (id, flags and permission ids) is embedded in the
+     * token and rebuilt from its claims instead of loaded from the database.
+     */
+    private boolean statelessPrincipal;
+
+    /**
+     * Maximum number of verified tokens cached until they expire (0 disables it).
+     */
+    private int cacheSize = 10_000;
+
     public String getSecret() {
         return secret;
     }
@@ -37,4 +48,20 @@ public class JwtProperties {
     public void setExpiration(long expiration) {
         this.expiration = expiration;
     }
+
+    public boolean isStatelessPrincipal() {
+        return statelessPrincipal;
+    }
+
+    public void setStatelessPrincipal(boolean statelessPrincipal) {
+        this.statelessPrincipal = statelessPrincipal;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
 }
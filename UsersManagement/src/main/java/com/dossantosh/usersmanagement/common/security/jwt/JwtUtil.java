@@ -1,6 +1,8 @@
 package com.dossantosh.usersmanagement.common.security.jwt;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -12,9 +14,24 @@ import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+import com.dossantosh.usersmanagement.common.security.custom.auth.PermissionSet;
+import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuth;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 /**
  * Utility class for handling JSON Web Tokens (JWT).
  * <p>
@@ -22,15 +39,33 @@ import java.util.function.Function;
  * and validate JWT tokens using a secret key and expiration time
  * configured via application properties.
  * </p>
+ * <p>
+ * Tokens are parsed once with a shared, thread-safe parser. Verified tokens are
+ * kept in a bounded cache keyed by the SHA-256 hash of the token until they
+ * expire, so a client repeating the same bearer token only pays for signature
+ * verification once.
+ * </p>
  */
 @Component
 @ConfigurationProperties(prefix = "jwt")
 public class JwtUtil {
 
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_EMAIL = "email";
+    static final String CLAIM_ENABLED = "en";
+    static final String CLAIM_ADMIN = "adm";
+    static final String CLAIM_ROLES = "rol";
+    static final String CLAIM_MODULES = "mod";
+    static final String CLAIM_SUBMODULES = "smod";
+
     private String secret;
     private long expiration;
+    private boolean statelessPrincipal;
+    private int cacheSize = 10_000;
 
     private Key key;
+    private JwtParser parser;
+    private Cache<String, VerifiedToken> verifiedTokens;
 
     /**
      * Sets the secret key used for signing the JWT tokens.
@@ -71,12 +106,116 @@ public class JwtUtil {
     }
 
     /**
-     * Initializes the signing key from the secret after the properties are set.
+     * Enables or disables the stateless principal mode. When enabled, tokens carry
+     * the user id, flags and permission ids, and the principal is rebuilt from the
+     * claims instead of being loaded from the database on every request.
+     *
+     * @param statelessPrincipal true to embed the principal in the token
+     */
+    public void setStatelessPrincipal(boolean statelessPrincipal) {
+        this.statelessPrincipal = statelessPrincipal;
+    }
+
+    /**
+     * Indicates whether the stateless principal mode is enabled.
+     *
+     * @return true if the principal is embedded in the token claims
+     */
+    public boolean isStatelessPrincipal() {
+        return statelessPrincipal;
+    }
+
+    /**
+     * Sets the maximum number of verified tokens kept in memory.
+     * A value of 0 disables the cache.
+     *
+     * @param cacheSize the maximum number of cached tokens
+     */
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Gets the maximum number of verified tokens kept in memory.
+     *
+     * @return the maximum number of cached tokens
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Initializes the signing key, the shared parser and the verified token cache
+     * from the secret after the properties are set.
      * This method is called automatically by Spring after dependency injection.
      */
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        this.verifiedTokens = cacheSize > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(cacheSize)
+                        .expireAfter(new UntilTokenExpires())
+                        .build()
+                : null;
+    }
+
+    /**
+     * Verifies the signature of the JWT token and parses its claims, once.
+     * Repeated calls with the same token are served from the cache until the
+     * token expires.
+     *
+     * @param token the JWT token string
+     * @return the verified token
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, expired or
+     *                                      its signature is invalid
+     */
+    public VerifiedToken verify(String token) {
+        if (verifiedTokens == null) {
+            return parse(token);
+        }
+
+        String cacheKey = hash(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(cacheKey);
+        if (verified == null || verified.isExpired()) {
+            verified = parse(token);
+            verifiedTokens.put(cacheKey, verified);
+        }
+        return verified;
+    }
+
+    /**
+     * Parses the JWT token with the shared parser, checking its signature and
+     * expiration.
+     *
+     * @param token the JWT token string
+     * @return the verified token
+     */
+    private VerifiedToken parse(String token) {
+        Jws<Claims> jws = parser.parseClaimsJws(token);
+        Claims claims = jws.getBody();
+        return new VerifiedToken(claims.getId(), claims.getSubject(), claims.getIssuedAt(), claims.getExpiration(),
+                claims);
+    }
+
+    /**
+     * Hashes the token for use as cache key, so the cache holds fixed-size keys
+     * and a forged token can never collide with a verified one.
+     *
+     * @param token the JWT token string
+     * @return the Base64-encoded SHA-256 hash of the token
+     */
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
     /**
@@ -86,7 +225,7 @@ public class JwtUtil {
      * @return the username contained in the token
      */
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
 
     /**
@@ -96,7 +235,7 @@ public class JwtUtil {
      * @return the expiration date of the token
      */
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return verify(token).expiration();
     }
 
     /**
@@ -108,53 +247,92 @@ public class JwtUtil {
      * @return the extracted claim of type T
      */
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(verify(token).claims());
     }
 
     /**
-     * Parses the JWT token to extract all claims.
+     * Rebuilds the authenticated principal from the claims of the JWT token.
+     * The password is never part of the token, so the returned principal has none.
      *
-     * @param token the JWT token string
-     * @return the Claims object containing all token claims
+     * @param token the verified JWT token
+     * @return the {@link UserAuth} described by the token, or null if the token
+     *         was not issued with the principal claims
      */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public UserAuth extractUserAuth(VerifiedToken token) {
+        final Claims claims = token.claims();
+        if (claims.get(CLAIM_USER_ID) == null) {
+            return null;
+        }
+
+        UserAuth userAuth = new UserAuth();
+        userAuth.setId(claims.get(CLAIM_USER_ID, Number.class).longValue());
+        userAuth.setUsername(claims.getSubject());
+        userAuth.setEmail(claims.get(CLAIM_EMAIL, String.class));
+        userAuth.setEnabled(claims.get(CLAIM_ENABLED, Boolean.class));
+        userAuth.setIsAdmin(claims.get(CLAIM_ADMIN, Boolean.class));
+        userAuth.setRoles(toIds(claims.get(CLAIM_ROLES, List.class)));
+        userAuth.setModules(toIds(claims.get(CLAIM_MODULES, List.class)));
+        userAuth.setSubmodules(toIds(claims.get(CLAIM_SUBMODULES, List.class)));
+        return userAuth;
     }
 
     /**
-     * Checks if the JWT token has expired.
+     * Converts a JSON array claim into a set of ids. Numbers are deserialized as
+     * Integer or Long depending on their magnitude, so both are accepted.
      *
-     * @param token the JWT token string
-     * @return true if the token is expired, false otherwise
+     * @param values the raw claim values, may be null
+     * @return the set of ids
      */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static PermissionSet toIds(List<?> values) {
+        if (values == null) {
+            return PermissionSet.EMPTY;
+        }
+        long[] ids = new long[values.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ((Number) values.get(i)).longValue();
+        }
+        return PermissionSet.of(ids);
     }
 
     /**
      * Generates a JWT token for the provided user details.
+     * In stateless principal mode the user id, flags and permission ids of a
+     * {@link UserAuth} are embedded as claims.
      *
      * @param userDetails the user details object
      * @return the generated JWT token string
      */
     public String generateToken(UserDetails userDetails) {
-        return createToken(userDetails.getUsername());
+        Map<String, Object> claims = new HashMap<>();
+        if (statelessPrincipal && userDetails instanceof UserAuth userAuth) {
+            claims.put(CLAIM_USER_ID, userAuth.getId());
+            claims.put(CLAIM_EMAIL, userAuth.getEmail());
+            claims.put(CLAIM_ENABLED, userAuth.isEnabled());
+            claims.put(CLAIM_ADMIN, Boolean.TRUE.equals(userAuth.getIsAdmin()));
+            claims.put(CLAIM_ROLES, toClaim(userAuth.getRoles()));
+            claims.put(CLAIM_MODULES, toClaim(userAuth.getModules()));
+            claims.put(CLAIM_SUBMODULES, toClaim(userAuth.getSubmodules()));
+        }
+        return createToken(claims, userDetails.getUsername());
+    }
+
+    private static List<Long> toClaim(Collection<Long> ids) {
+        return ids == null ? List.of() : List.copyOf(ids);
     }
 
     /**
-     * Creates a JWT token with the given subject (username),
-     * issued date, expiration date, and signs it with the secret key.
+     * Creates a JWT token with the given claims and subject (username),
+     * a unique id (jti) used for revocation, issued date, expiration date,
+     * and signs it with the secret key.
      *
+     * @param claims  the custom claims to be included in the token
      * @param subject the subject (usually username) to be included in the token
      * @return the generated JWT token string
      */
-    private String createToken(String subject) {
+    private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
+                .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
@@ -171,7 +349,40 @@ public class JwtUtil {
      * @return true if the token is valid and belongs to the user, false otherwise
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(verify(token), userDetails);
+    }
+
+    /**
+     * Validates an already verified JWT token against the provided user details.
+     * Checks if the username matches and the token is not expired.
+     *
+     * @param token       the verified JWT token
+     * @param userDetails the user details to validate against
+     * @return true if the token is valid and belongs to the user, false otherwise
+     */
+    public boolean validateToken(VerifiedToken token, UserDetails userDetails) {
+        return token.subject().equals(userDetails.getUsername()) && !token.isExpired();
+    }
+
+    /**
+     * Expires each cached token at the expiration date of the token itself.
+     */
+    private static final class UntilTokenExpires implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+            long remainingMillis = token.expiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
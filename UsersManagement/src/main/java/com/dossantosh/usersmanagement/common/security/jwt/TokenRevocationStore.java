@@ -0,0 +1,180 @@
+package com.dossantosh.usersmanagement.common.security.jwt;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * In-memory store of revoked JWT tokens, checked on every request.
+ * <p>
+ * Single tokens are revoked by id (jti). Revoked ids are grouped in buckets by
+ * the expiration date of their token; each bucket holds a Bloom filter in front
+ * of an exact set. A lookup for a token that was never revoked almost always
+ * stops at an empty bucket or a clear Bloom bit, without allocating, and
+ * whole buckets are dropped once all of their tokens have expired.
+ * </p>
+ * <p>
+ * All the tokens of a user are revoked with a cut-off date: tokens of that user
+ * issued before it are rejected, and the cut-off is forgotten once every token
+ * it covers has expired. Revocations are local to this node.
+ * </p>
+ */
+@Component
+@ConfigurationProperties(prefix = "jwt.revocation")
+@RequiredArgsConstructor
+public class TokenRevocationStore {
+
+    private final JwtUtil jwtUtil;
+
+    /**
+     * Width of the expiration window grouped in one bucket.
+     */
+    @Getter
+    @Setter
+    private Duration bucketWidth = Duration.ofMinutes(5);
+
+    /**
+     * Revoked tokens expected per bucket, used to size its Bloom filter for a
+     * false positive rate of about 1%.
+     */
+    @Getter
+    @Setter
+    private int expectedPerBucket = 10_000;
+
+    private final Map<Long, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> userCutoffs = new ConcurrentHashMap<>();
+
+    /**
+     * Revokes a single token until it expires.
+     *
+     * @param token the verified token to revoke
+     */
+    public void revoke(VerifiedToken token) {
+        if (token.id() == null) {
+            // Tokens issued before ids were added can only be revoked per user
+            revokeAllForUser(token.subject());
+            return;
+        }
+        buckets.computeIfAbsent(bucketOf(token.expiration().getTime()), index -> new Bucket(expectedPerBucket))
+                .add(token.id());
+    }
+
+    /**
+     * Revokes every token issued to the user up to now. Tokens issued within the
+     * same second are revoked as well, since the issue date has second precision.
+     *
+     * @param username the username whose tokens are revoked
+     */
+    public void revokeAllForUser(String username) {
+        userCutoffs.put(username, System.currentTimeMillis());
+    }
+
+    /**
+     * Checks whether the token has been revoked.
+     *
+     * @param token the verified token
+     * @return true if the token or all the tokens of its user were revoked
+     */
+    public boolean isRevoked(VerifiedToken token) {
+        if (!userCutoffs.isEmpty()) {
+            Long cutoff = userCutoffs.get(token.subject());
+            if (cutoff != null && (token.issuedAt() == null || token.issuedAt().getTime() < cutoff)) {
+                return true;
+            }
+        }
+
+        if (token.id() == null || buckets.isEmpty()) {
+            return false;
+        }
+        Bucket bucket = buckets.get(bucketOf(token.expiration().getTime()));
+        return bucket != null && bucket.contains(token.id());
+    }
+
+    /**
+     * Drops the buckets and user cut-offs whose tokens have all expired.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        long currentBucket = bucketOf(now);
+        buckets.keySet().removeIf(index -> index < currentBucket);
+
+        long oldestLiveIssue = now - jwtUtil.getExpiration();
+        userCutoffs.values().removeIf(cutoff -> cutoff < oldestLiveIssue);
+    }
+
+    private long bucketOf(long epochMillis) {
+        return epochMillis / bucketWidth.toMillis();
+    }
+
+    /**
+     * Revoked ids of one expiration window: a Bloom filter answering "surely not
+     * revoked" for most lookups, backed by the exact set for the rest.
+     */
+    private static final class Bucket {
+
+        private static final int HASHES = 7;
+
+        private final AtomicLongArray bits;
+
+        private final int bitCount;
+
+        private final Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        Bucket(int expectedInsertions) {
+            // m = -n ln(p) / ln(2)^2 with p = 0.01, rounded up to whole words
+            int words = (int) Math.max(1, Math.ceil(expectedInsertions * 9.6 / 64));
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = words * 64;
+        }
+
+        void add(String id) {
+            ids.add(id);
+            long hash = hash(id);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                long mask = 1L << bit;
+                bits.getAndAccumulate(bit >>> 6, mask, (word, m) -> word | m);
+            }
+        }
+
+        boolean contains(String id) {
+            long hash = hash(id);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return ids.contains(id);
+        }
+
+        /**
+         * 64-bit FNV-1a hash of the id, computed over its chars without
+         * allocating.
+         */
+        private static long hash(String id) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < id.length(); i++) {
+                hash ^= id.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.dossantosh.usersmanagement.common.security.jwt;
+
+import java.util.Date;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * A JWT token whose signature has already been verified.
+ * Holds the id, subject, issue and expiration dates and all the claims of the
+ * token, so a request can read them without parsing the token again.
+ *
+ * @param id         the unique id (jti) of the token, null for tokens issued
+ *                   before ids were added
+ * @param subject    the subject (username) of the token
+ * @param issuedAt   the issue date of the token
+ * @param expiration the expiration date of the token
+ * @param claims     all the claims of the token, including the custom ones
+ */
+public record VerifiedToken(String id, String subject, Date issuedAt, Date expiration, Claims claims) {
+
+    /**
+     * Checks if the token has expired.
+     *
+     * @return true if the token is expired, false otherwise
+     */
+    public boolean isExpired() {
+        return expiration.getTime() <= System.currentTimeMillis();
+    }
+}
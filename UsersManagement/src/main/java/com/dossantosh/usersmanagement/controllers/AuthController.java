@@ -1,5 +1,7 @@
 package com.dossantosh.usersmanagement.controllers;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,6 +14,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -20,10 +23,17 @@ import com.dossantosh.usersmanagement.common.angular.AuthResponse;
 import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuth;
 import com.dossantosh.usersmanagement.common.security.custom.auth.bus.CustomUserDetailsService;
 import com.dossantosh.usersmanagement.common.security.custom.auth.bus.UserAuthDTO;
+import com.dossantosh.usersmanagement.common.security.hashing.PasswordHashingExecutor;
 import com.dossantosh.usersmanagement.common.security.jwt.JwtUtil;
+import com.dossantosh.usersmanagement.common.security.jwt.TokenRevocationStore;
+import com.dossantosh.usersmanagement.common.security.jwt.VerifiedToken;
 import com.dossantosh.usersmanagement.services.UserService;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * REST controller for handling authentication and retrieving information
@@ -33,55 +43,153 @@ import lombok.RequiredArgsConstructor;
  * This controller exposes endpoints to:
  * <ul>
  * <li>Authenticate a user and generate a JWT token</li>
+ * <li>Refresh the JWT token of the currently logged-in user</li>
+ * <li>Log out by revoking the current JWT token</li>
  * <li>Retrieve the full user details of the currently logged-in user</li>
  * </ul>
+ * <p>
+ * Logins are counted by {@code auth.login}, tagged {@code outcome=success},
+ * {@code bad_credentials} or {@code error}; logins rejected before the password
+ * check are counted by {@code auth.hashing.rejected}.
  */
+@Slf4j
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 public class AuthController {
 
-    private final UserService userService;
     private final AuthenticationManager authenticationManager;
     private final CustomUserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final TokenRevocationStore revocationStore;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final MeterRegistry meterRegistry;
+
+    private Counter loginSuccess;
+    private Counter loginBadCredentials;
+    private Counter loginError;
+
+    /**
+     * Registers the login outcome counters.
+     */
+    @PostConstruct
+    public void init() {
+        this.loginSuccess = loginCounter("success");
+        this.loginBadCredentials = loginCounter("bad_credentials");
+        this.loginError = loginCounter("error");
+    }
+
+    private Counter loginCounter(String outcome) {
+        return Counter.builder("auth.login")
+                .description("Login attempts, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 
     /**
      * Authenticates a user using a username and password.
      * If successful, returns a JWT token.
+     * <p>
+     * The password check runs on the bounded {@link PasswordHashingExecutor}, so
+     * the request thread is released while BCrypt works.
+     * </p>
      *
      * @param authRequest the login request containing username and password
      * @return {@link ResponseEntity} with a {@link AuthResponse} containing the JWT
      *         token,
-     *         or 401 UNAUTHORIZED if authentication fails
+     *         401 UNAUTHORIZED if authentication fails,
+     *         or 429 TOO MANY REQUESTS if too many logins are already in progress
      */
-
-
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody AuthRequest authRequest) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody AuthRequest authRequest) {
+        return passwordHashingExecutor.submit(() -> authenticate(authRequest));
+    }
+
+    /**
+     * Checks the credentials and issues the token from the principal loaded by
+     * the authentication itself, so a login costs a single user lookup.
+     *
+     * @param authRequest the login request containing username and password
+     * @return the login response
+     */
+    private ResponseEntity<?> authenticate(AuthRequest authRequest) {
         try {
-            authenticationManager.authenticate(
+            Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(authRequest.username(), authRequest.password()));
 
-            System.out.println("✅ Autenticación correcta para: " + authRequest.username());
-
-            final UserDetails userDetails = userDetailsService.loadUserByUsername(authRequest.username());
-            System.out.println("👤 UserDetails cargado: " + userDetails.getUsername());
-
+            final UserDetails userDetails = (UserDetails) authentication.getPrincipal();
             final String jwt = jwtUtil.generateToken(userDetails);
-            System.out.println("🔐 JWT generado: " + jwt);
+
+            log.debug("Login succeeded for {}", userDetails.getUsername());
+            loginSuccess.increment();
 
             return ResponseEntity.ok(new AuthResponse(jwt));
         } catch (BadCredentialsException e) {
-            System.out.println("Credenciales inválidas para: " + authRequest.username());
+            log.debug("Invalid credentials for {}", authRequest.username());
+            loginBadCredentials.increment();
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
         } catch (Exception e) {
-            System.out.println("Error inesperado en login: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Unexpected error during login", e);
+            loginError.increment();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Unexpected error: " + e.getMessage());
         }
     }
 
+    /**
+     * Issues a new JWT token for the currently authenticated user.
+     * The user is reloaded from the database, so status and permission changes
+     * are reflected in the new token when the stateless principal mode is enabled.
+     *
+     * @return {@link ResponseEntity} with a {@link AuthResponse} containing the new
+     *         JWT token,
+     *         or 401 UNAUTHORIZED if no user is authenticated or the user is
+     *         disabled
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh() {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserAuth userAuth)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        final UserDetails userDetails = userDetailsService.loadPrincipal(userAuth.getUsername());
+
+        if (!userDetails.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        return ResponseEntity.ok(new AuthResponse(jwtUtil.generateToken(userDetails)));
+    }
+
+    /**
+     * Logs out the current user by revoking the JWT token sent with the request.
+     * The token is rejected from then on, until it expires.
+     *
+     * @param authHeader the Authorization header carrying the bearer token
+     * @return {@link ResponseEntity} with 204 NO CONTENT,
+     *         or 401 UNAUTHORIZED if no valid token was sent
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        final VerifiedToken token;
+        try {
+            token = jwtUtil.verify(authHeader.substring(7));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        revocationStore.revoke(token);
+
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Retrieves the full user details of the currently authenticated user.
      *
@@ -100,7 +208,7 @@ public class AuthController {
 
         UserAuth userAuth = (UserAuth) authentication.getPrincipal();
 
-        UserAuthDTO userAuthDTO = userService.mapToUserAuthDTO(userAuth);
+        UserAuthDTO userAuthDTO = UserService.mapToUserAuthDTO(userAuth);
 
         return ResponseEntity.ok(userAuthDTO);
     }
@@ -0,0 +1,127 @@
+package com.dossantosh.usersmanagement.controllers;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import com.dossantosh.usersmanagement.common.security.custom.auth.bus.UserContextService;
+import com.dossantosh.usersmanagement.projections.PermissionJobRequest;
+import com.dossantosh.usersmanagement.projections.PermissionJobStatus;
+import com.dossantosh.usersmanagement.services.PermissionCatalog;
+import com.dossantosh.usersmanagement.services.PermissionJobService;
+import com.dossantosh.usersmanagement.services.UserService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller exposing the roles, modules and submodules that can be
+ * assigned to users.
+ *
+ * <p>
+ * This controller exposes endpoints to:
+ * <ul>
+ * <li>List all the roles, modules and submodules, with an ETag so clients can
+ * cache the list</li>
+ * <li>Reload the permission catalog from the database (administrators
+ * only)</li>
+ * <li>Grant or revoke a permission to a whole set of users in the background,
+ * and follow the progress of the job (administrators only)</li>
+ * </ul>
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/permissions")
+public class PermissionController {
+
+    private final UserService userService;
+
+    private final PermissionCatalog permissionCatalog;
+
+    private final PermissionJobService permissionJobService;
+
+    private final UserContextService userContextService;
+
+    /**
+     * Lists all the roles, modules and submodules. The ETag is the version of the
+     * permission catalog, so a client sending it back in If-None-Match gets a 304
+     * until the catalog changes.
+     *
+     * @param request The current request, checked for If-None-Match
+     * @return {@link ResponseEntity} with the lists under "allRoles",
+     *         "allModules" and "allSubmodules", or 304 Not Modified
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, List<?>>> getPermissions(WebRequest request) {
+        String etag = etag(permissionCatalog.getVersion());
+        if (request.checkNotModified(etag)) {
+            return null; // 304 already set on the response
+        }
+        return ResponseEntity.ok().eTag(etag).body(userService.permissionsList());
+    }
+
+    /**
+     * Reloads the permission catalog from the database, after the roles, modules
+     * or submodules were changed outside this node. Restricted to
+     * administrators.
+     *
+     * @return {@link ResponseEntity} with 204 No Content and the ETag of the
+     *         catalog, or 403 if the caller is not an administrator
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<Void> refresh() {
+        if (!Boolean.TRUE.equals(userContextService.isAdmin())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.noContent().eTag(etag(permissionCatalog.refresh())).build();
+    }
+
+    /**
+     * Starts a job granting or revoking one role, module or submodule to the
+     * listed users, to the members of another permission, or to every user.
+     * Restricted to administrators.
+     *
+     * @param request The operation, the permission and the users targeted
+     * @return {@link ResponseEntity} with 202 Accepted, the status of the job and
+     *         its location, or 403 if the caller is not an administrator
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<PermissionJobStatus> submitJob(@RequestBody PermissionJobRequest request) {
+        if (!Boolean.TRUE.equals(userContextService.isAdmin())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        PermissionJobStatus status = permissionJobService.submit(request);
+        return ResponseEntity.accepted().location(URI.create("/api/permissions/jobs/" + status.getId())).body(status);
+    }
+
+    /**
+     * Returns the progress of a permission job. Restricted to administrators.
+     *
+     * @param id The ID of the job
+     * @return {@link ResponseEntity} with the status of the job, or 403 if the
+     *         caller is not an administrator
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<PermissionJobStatus> getJob(@PathVariable String id) {
+        if (!Boolean.TRUE.equals(userContextService.isAdmin())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(permissionJobService.getStatus(id));
+    }
+
+    private static String etag(String version) {
+        return "\"" + version + "\"";
+    }
+}
@@ -1,14 +1,33 @@
 package com.dossantosh.usersmanagement.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 import com.dossantosh.usersmanagement.common.global.page.Direction;
+import com.dossantosh.usersmanagement.common.global.page.KeysetCursor;
 import com.dossantosh.usersmanagement.common.global.page.KeysetPage;
+import com.dossantosh.usersmanagement.common.global.page.UserSort;
+import com.dossantosh.usersmanagement.common.global.web.AsyncTimeoutConfig;
+import com.dossantosh.usersmanagement.common.security.custom.auth.bus.UserContextService;
 import com.dossantosh.usersmanagement.models.User;
 import com.dossantosh.usersmanagement.projections.FullUserDTO;
 import com.dossantosh.usersmanagement.projections.UserDTO;
+import com.dossantosh.usersmanagement.projections.UserImportResult;
+import com.dossantosh.usersmanagement.projections.UserPatch;
+import com.dossantosh.usersmanagement.services.UserCountService;
+import com.dossantosh.usersmanagement.services.UserExportService;
+import com.dossantosh.usersmanagement.services.UserImportService;
 import com.dossantosh.usersmanagement.services.UserService;
 
 /**
@@ -18,7 +37,11 @@ import com.dossantosh.usersmanagement.services.UserService;
  * This controller provides endpoints to:
  * <ul>
  * <li>Retrieve a paginated list of users using keyset pagination</li>
+ * <li>Export the users as NDJSON or CSV</li>
+ * <li>Import users in bulk (administrators only)</li>
+ * <li>Partially update one or several users (administrators only)</li>
  * <li>Get the full details of a specific user by ID</li>
+ * <li>Revoke every token issued to a user (administrators only)</li>
  * </ul>
  */
 @RestController
@@ -26,44 +49,74 @@ import com.dossantosh.usersmanagement.services.UserService;
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
     private final UserService userService;
 
+    private final UserCountService userCountService;
+
+    private final UserExportService userExportService;
+
+    private final UserImportService userImportService;
+
+    private final UserContextService userContextService;
+
     /**
      * Retrieves a list of users using keyset pagination, with optional filtering by
-     * ID, username, or email.
+     * ID, username, or email, sorted by ID, username or email.
      *
      * @param id        (optional) Exact user ID to filter by
      * @param username  (optional) Username starts with (case-insensitive)
      * @param email     (optional) Email starts with (case-insensitive)
-     * @param lastId    (optional) Last loaded ID for keyset pagination
+     * @param sort      Sort order: "ID", "USERNAME" or "EMAIL" (default: ID)
+     * @param cursor    (optional) Opaque cursor returned as nextCursor or
+     *                  previousCursor by the previous page
+     * @param lastId    (optional) Last loaded ID for keyset pagination, when
+     *                  sorting by ID without a cursor
      * @param limit     Maximum number of results to return (default: 50)
      * @param direction Pagination direction: "NEXT" or "PREVIOUS" (default: NEXT)
+     * @param includeTotal Whether to include the total number of matching users,
+     *                  estimated without filters and exact (cached briefly) with
+     *                  filters (default: false)
      * @return {@link ResponseEntity} containing a {@link KeysetPage} of
      *         {@link FullUserDTO},
-     *         or 400 Bad Request if direction is invalid, or 500 Internal Server
-     *         Error if service fails
+     *         or 400 Bad Request if direction, sort or cursor is invalid, or 500
+     *         Internal Server Error if service fails
      */
     @GetMapping
     public ResponseEntity<KeysetPage<UserDTO>> getUsers(
             @RequestParam(required = false) Long id,
             @RequestParam(required = false) String username,
             @RequestParam(required = false) String email,
+            @RequestParam(defaultValue = "ID") String sort,
+            @RequestParam(required = false) String cursor,
             @RequestParam(required = false) Long lastId,
             @RequestParam(defaultValue = "50") int limit,
-            @RequestParam(defaultValue = "NEXT") String direction) {
+            @RequestParam(defaultValue = "NEXT") String direction,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
 
         Direction dir;
+        UserSort userSort;
         try {
             dir = Direction.valueOf(direction.toUpperCase());
+            userSort = UserSort.valueOf(sort.toUpperCase());
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().build(); // Invalid direction
+            return ResponseEntity.badRequest().build(); // Invalid direction or sort
+        }
+
+        KeysetCursor keysetCursor = null;
+        if (cursor != null && !cursor.isBlank()) {
+            keysetCursor = KeysetCursor.decode(cursor);
+        } else if (lastId != null && userSort == UserSort.ID) {
+            keysetCursor = new KeysetCursor(UserSort.ID, null, lastId);
         }
 
         KeysetPage<UserDTO> users = userService.findUsersKeyset(
                 id,
                 username != null ? username.toLowerCase() : null,
                 email != null ? email.toLowerCase() : null,
-                lastId,
+                userSort,
+                keysetCursor,
                 limit,
                 dir);
 
@@ -71,9 +124,82 @@ public class UserController {
             return ResponseEntity.status(500).body(null); // Internal error
         }
 
+        if (includeTotal) {
+            UserCountService.Total total = userCountService.countUsers(id, username, email);
+            users.setTotalEstimate(total.value());
+            users.setTotalExact(total.exact());
+        }
+
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * Exports every user matching the filters, ordered by ID, as a stream. The
+     * users are read and written one batch at a time, so the export of the whole
+     * table does not need to fit in memory. Restricted to administrators.
+     *
+     * @param id       (optional) Exact user ID to filter by
+     * @param username (optional) Username starts with (case-insensitive)
+     * @param email    (optional) Email starts with (case-insensitive)
+     * @param format   Output format: "NDJSON" or "CSV" (default: NDJSON)
+     * @param request  The current request, given the export timeout
+     * @return {@link ResponseEntity} streaming the users as an attachment,
+     *         400 Bad Request if the format is invalid, or 403 if the caller is
+     *         not an administrator
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(required = false) Long id,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email,
+            @RequestParam(defaultValue = "NDJSON") String format,
+            HttpServletRequest request) {
+        if (!Boolean.TRUE.equals(userContextService.isAdmin())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        UserExportService.Format exportFormat;
+        try {
+            exportFormat = UserExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // Invalid format
+        }
+
+        AsyncTimeoutConfig.setTimeout(request, userExportService.getTimeout());
+        StreamingResponseBody body = out -> userExportService.exportUsers(id, username, email, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"users." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * Imports users in bulk from a JSON array or a CSV stream, read as it arrives.
+     * Valid users are saved in chunks and invalid ones are reported by row without
+     * stopping the import. Restricted to administrators.
+     *
+     * @param contentType The body type: application/json or text/csv
+     * @param body        The users to import
+     * @return {@link ResponseEntity} with the {@link UserImportResult},
+     *         400 Bad Request if the body is not a JSON array or lacks the CSV
+     *         header, or 403 if the caller is not an administrator
+     * @throws IOException if the body cannot be read
+     */
+    @PostMapping(value = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, "text/csv" })
+    public ResponseEntity<UserImportResult> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        if (!Boolean.TRUE.equals(userContextService.isAdmin())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        UserImportResult result = MediaType.parseMediaType(contentType).isCompatibleWith(TEXT_CSV)
+                ? userImportService.importCsv(body)
+                : userImportService.importJson(body);
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * Retrieves the full details of a user including roles, modules, and
      * submodules.
@@ -87,7 +213,68 @@ public class UserController {
     @GetMapping("/{id}")
     public ResponseEntity<FullUserDTO> getUserDetails(@PathVariable Long id) {
         User user = userService.findFullUserById(id);
-        FullUserDTO dto = userService.mapToFullUserDTO(user);
+        FullUserDTO dto = UserService.mapToFullUserDTO(user);
         return ResponseEntity.ok(dto);
     }
+
+    /**
+     * Partially updates a user: only the fields present in the body are changed,
+     * and the role, module and submodule sets, when given, replace the current
+     * ones. Restricted to administrators.
+     *
+     * @param id    The ID of the user to update
+     * @param patch The fields to change
+     * @return {@link ResponseEntity} with 204 No Content,
+     *         400 Bad Request if a value or permission id is invalid, 403 if the
+     *         caller is not an administrator, or 404 if the user does not exist
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchUser(@PathVariable Long id, @RequestBody UserPatch patch) {
+        if (!Boolean.TRUE.equals(userContextService.isAdmin())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        patch.setId(id);
+        userService.patchUsers(List.of(patch));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Partially updates several users in one transaction, each patch naming its
+     * user by ID. Either every patch is applied or none. Restricted to
+     * administrators.
+     *
+     * @param patches The fields to change, per user
+     * @return {@link ResponseEntity} with 204 No Content,
+     *         400 Bad Request if a patch is invalid, 403 if the caller is not an
+     *         administrator, or 404 if a user does not exist
+     */
+    @PatchMapping
+    public ResponseEntity<Void> patchUsers(@RequestBody List<UserPatch> patches) {
+        if (!Boolean.TRUE.equals(userContextService.isAdmin())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        userService.patchUsers(patches);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Revokes every JWT token issued to a user so far, forcing the user to log in
+     * again. Restricted to administrators.
+     *
+     * @param id The ID of the user whose tokens are revoked
+     * @return {@link ResponseEntity} with 204 No Content,
+     *         403 if the caller is not an administrator, or 404 if the user does
+     *         not exist
+     */
+    @PostMapping("/{id}/revoke-tokens")
+    public ResponseEntity<Void> revokeTokens(@PathVariable Long id) {
+        if (!Boolean.TRUE.equals(userContextService.isAdmin())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        userService.revokeTokens(id);
+        return ResponseEntity.noContent().build();
+    }
 }
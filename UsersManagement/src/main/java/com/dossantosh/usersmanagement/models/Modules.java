@@ -5,6 +5,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -17,6 +20,7 @@ import lombok.*;
 @Getter
 @Setter
 @Entity
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 @Table(name = "modules")
 public class Modules implements Serializable {
     @Id
@@ -30,6 +34,7 @@ public class Modules implements Serializable {
     @Column(length = 50)
     private String image;
 
+    @JsonIgnore
     @ManyToMany(mappedBy = "modules")
     private List<User> users = new ArrayList<>();
 
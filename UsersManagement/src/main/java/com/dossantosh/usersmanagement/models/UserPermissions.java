@@ -0,0 +1,56 @@
+package com.dossantosh.usersmanagement.models;
+
+import java.io.Serializable;
+import java.util.stream.Collectors;
+
+import com.dossantosh.usersmanagement.common.security.custom.auth.PermissionSet;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+/**
+ * Denormalized copy of the roles, modules and submodules of a user, stored as
+ * bit masks (id n in bit n - 1, see {@link PermissionSet#toMask()}) so that the
+ * auth lookup reads a single row. A null mask means the ids of that kind do not
+ * fit in 64 bits and must be read from the link tables.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "user_permissions")
+public class UserPermissions implements Serializable {
+
+    @Id
+    @Column(name = "id_user")
+    private Long id;
+
+    @Column(name = "roles_mask")
+    private Long rolesMask;
+
+    @Column(name = "modules_mask")
+    private Long modulesMask;
+
+    @Column(name = "submodules_mask")
+    private Long submodulesMask;
+
+    /**
+     * Builds the masks of a user from its roles, modules and submodules.
+     *
+     * @param user the user, already persisted
+     * @return the permission masks of the user
+     */
+    public static UserPermissions of(User user) {
+        UserPermissions permissions = new UserPermissions();
+        permissions.setId(user.getId());
+        permissions.setRolesMask(PermissionSet.of(
+                user.getRoles().stream().map(Roles::getId).collect(Collectors.toList())).toMask());
+        permissions.setModulesMask(PermissionSet.of(
+                user.getModules().stream().map(Modules::getId).collect(Collectors.toList())).toMask());
+        permissions.setSubmodulesMask(PermissionSet.of(
+                user.getSubmodules().stream().map(Submodules::getId).collect(Collectors.toList())).toMask());
+        return permissions;
+    }
+}
@@ -0,0 +1,41 @@
+package com.dossantosh.usersmanagement.projections;
+
+import java.io.Serializable;
+import java.util.Set;
+
+import com.dossantosh.usersmanagement.repositories.UserJdbcRepository.LinkTable;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Set-based grant or revoke of one role, module or submodule.
+ * 
+ * The change applies to the given user IDs, or to every user that has the
+ * {@code memberOfType}/{@code memberOfId} permission, or to every user when
+ * neither is given. Both filters can be combined.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class PermissionJobRequest implements Serializable {
+
+    /**
+     * Whether the permission is granted or revoked.
+     */
+    public enum Operation {
+        GRANT,
+        REVOKE
+    }
+
+    private Operation operation;
+    private LinkTable type;
+    private Long permissionId;
+
+    private Set<Long> userIds;
+
+    private LinkTable memberOfType;
+    private Long memberOfId;
+
+}
@@ -0,0 +1,51 @@
+package com.dossantosh.usersmanagement.projections;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import com.dossantosh.usersmanagement.projections.PermissionJobRequest.Operation;
+import com.dossantosh.usersmanagement.repositories.UserJdbcRepository.LinkTable;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Progress of a set-based permission job, as reported to clients.
+ * 
+ * {@code affectedUsers} counts the users that actually gained or lost the
+ * permission; users that already had it, or never had it, are not counted.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PermissionJobStatus implements Serializable {
+
+    /**
+     * Lifecycle of a job. A job with failed chunks ends as FAILED once the other
+     * chunks are done; it can be submitted again, as every chunk is idempotent.
+     */
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private String id;
+    private Operation operation;
+    private LinkTable type;
+    private Long permissionId;
+
+    private State state;
+    private int totalChunks;
+    private int completedChunks;
+    private int failedChunks;
+    private long affectedUsers;
+    private String error;
+
+    private Instant startedAt;
+    private Instant finishedAt;
+
+}
@@ -0,0 +1,33 @@
+package com.dossantosh.usersmanagement.projections;
+
+import java.io.Serializable;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One user of a bulk import, as read from the JSON array or CSV row.
+ * 
+ * Either the plain password or an already computed BCrypt hash must be given.
+ * Users without roles, modules or submodules get the default ones (id 1).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserImportDTO implements Serializable {
+
+    private String username;
+    private String email;
+    private String password;
+    private String passwordHash;
+    private Boolean enabled;
+    private Boolean isAdmin;
+
+    private Set<Long> roles = new LinkedHashSet<>();
+    private Set<Long> modules = new LinkedHashSet<>();
+    private Set<Long> submodules = new LinkedHashSet<>();
+
+}
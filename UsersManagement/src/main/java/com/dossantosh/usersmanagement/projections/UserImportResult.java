@@ -0,0 +1,37 @@
+package com.dossantosh.usersmanagement.projections;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Outcome of a bulk import: how many users were read, imported and rejected,
+ * and why each rejected row failed. Only the first errors are listed when
+ * {@code errorsTruncated} is set.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserImportResult implements Serializable {
+
+    private long received;
+    private long imported;
+    private long failed;
+
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    /**
+     * A rejected row.
+     *
+     * @param row      the 1-based position of the user in the input
+     * @param username the username of the row, if it could be read
+     * @param message  why the row was rejected
+     */
+    public record RowError(long row, String username, String message) implements Serializable {
+    }
+}
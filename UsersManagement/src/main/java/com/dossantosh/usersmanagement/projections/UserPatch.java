@@ -0,0 +1,34 @@
+package com.dossantosh.usersmanagement.projections;
+
+import java.io.Serializable;
+import java.util.Set;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Partial update of a user: only the non-null fields are changed.
+ * 
+ * The password is given either in plain text, to be hashed, or as a BCrypt
+ * hash. The role, module and submodule sets replace the current ones; only the
+ * ids that differ are added or removed.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserPatch implements Serializable {
+
+    private Long id;
+    private String username;
+    private String email;
+    private String password;
+    private String passwordHash;
+    private Boolean enabled;
+    private Boolean isAdmin;
+
+    private Set<Long> roles;
+    private Set<Long> modules;
+    private Set<Long> submodules;
+
+}
@@ -0,0 +1,420 @@
+package com.dossantosh.usersmanagement.repositories;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.dossantosh.usersmanagement.common.security.custom.auth.PermissionSet;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Repository writing users in bulk with plain JDBC, bypassing the entities.
+ *
+ * Inserts and partial updates touch only the rows and columns that change,
+ * instead of the merge of the whole entity graph done by JPA. Each write is a
+ * single statement over Postgres arrays expanded with {@code unnest}, or one
+ * JDBC batch, so a whole chunk of users costs a handful of round trips
+ * whatever its size, which the {@code IDENTITY} ids of {@link
+ * com.dossantosh.usersmanagement.models.User} prevent Hibernate from
+ * batching.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the users with their link-table rows and permission masks. Users
+     * whose username or email is already taken are skipped. Must be called within
+     * a transaction so that a failure leaves no partial user behind.
+     *
+     * @param users the users to insert, with unique usernames and emails
+     * @return the ids of the inserted users by username
+     */
+    public Map<String, Long> insertUsers(List<NewUser> users) {
+        if (users.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    INSERT INTO users (username, email, password, enabled, is_admin)
+                    SELECT * FROM unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::boolean[], ?::boolean[])
+                    ON CONFLICT DO NOTHING
+                    RETURNING id_user, username""");
+            ps.setArray(1, array(con, "varchar", users, NewUser::username));
+            ps.setArray(2, array(con, "varchar", users, NewUser::email));
+            ps.setArray(3, array(con, "varchar", users, NewUser::passwordHash));
+            ps.setArray(4, array(con, "boolean", users, NewUser::enabled));
+            ps.setArray(5, array(con, "boolean", users, NewUser::isAdmin));
+            return ps;
+        }, rs -> {
+            ids.put(rs.getString("username"), rs.getLong("id_user"));
+        });
+
+        if (ids.isEmpty()) {
+            return ids;
+        }
+
+        List<NewUser> inserted = new ArrayList<>(ids.size());
+        for (NewUser user : users) {
+            if (ids.containsKey(user.username())) {
+                inserted.add(user);
+            }
+        }
+
+        insertLinks(LinkTable.ROLES, inserted, ids, NewUser::roles);
+        insertLinks(LinkTable.MODULES, inserted, ids, NewUser::modules);
+        insertLinks(LinkTable.SUBMODULES, inserted, ids, NewUser::submodules);
+        insertMasks(inserted, ids);
+        return ids;
+    }
+
+    /**
+     * Finds the usernames of the given users.
+     *
+     * @param ids the user IDs
+     * @return the username by ID of every user found
+     */
+    public Map<Long, String> findUsernames(Collection<Long> ids) {
+        Map<Long, String> usernames = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT id_user, username FROM users WHERE id_user = ANY(?::bigint[])");
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, rs -> {
+            usernames.put(rs.getLong("id_user"), rs.getString("username"));
+        });
+        return usernames;
+    }
+
+    /**
+     * Finds the administrator flag of the given users.
+     *
+     * @param ids the user IDs
+     * @return the is_admin column by ID of every user found
+     */
+    public Map<Long, Boolean> findAdminFlags(Collection<Long> ids) {
+        Map<Long, Boolean> flags = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT id_user, is_admin FROM users WHERE id_user = ANY(?::bigint[])");
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, rs -> {
+            flags.put(rs.getLong("id_user"), (Boolean) rs.getObject("is_admin"));
+        });
+        return flags;
+    }
+
+    /**
+     * Updates the given columns of each user, and only those. Updates setting the
+     * same columns are sent together as one JDBC batch.
+     *
+     * @param updates the new column values by user ID
+     */
+    public void updateColumns(Map<Long, Map<UserColumn, Object>> updates) {
+        Map<Set<UserColumn>, List<Object[]>> batches = new HashMap<>();
+        updates.forEach((id, columns) -> {
+            if (columns.isEmpty()) {
+                return;
+            }
+            EnumMap<UserColumn, Object> ordered = new EnumMap<>(columns);
+            Object[] args = new Object[ordered.size() + 1];
+            int i = 0;
+            for (Object value : ordered.values()) {
+                args[i++] = value;
+            }
+            args[i] = id;
+            batches.computeIfAbsent(ordered.keySet(), k -> new ArrayList<>()).add(args);
+        });
+
+        batches.forEach((columns, args) -> {
+            StringBuilder sql = new StringBuilder("UPDATE users SET ");
+            int i = 0;
+            for (UserColumn column : columns) {
+                sql.append(i++ > 0 ? ", " : "").append(column.getColumn()).append(" = ?");
+            }
+            sql.append(" WHERE id_user = ?");
+            jdbcTemplate.batchUpdate(sql.toString(), args);
+        });
+    }
+
+    /**
+     * Finds the permission ids linked to each of the given users.
+     *
+     * @param table the link table
+     * @param ids   the user IDs
+     * @return the linked ids by user ID; users without links are absent
+     */
+    public Map<Long, Set<Long>> findLinks(LinkTable table, Collection<Long> ids) {
+        Map<Long, Set<Long>> links = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id_user, " + table.getColumn() + " AS id"
+                    + " FROM " + table.getTable() + " WHERE id_user = ANY(?::bigint[])");
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, rs -> {
+            links.computeIfAbsent(rs.getLong("id_user"), k -> new HashSet<>()).add(rs.getLong("id"));
+        });
+        return links;
+    }
+
+    /**
+     * Adds links between users and permissions, given as two parallel lists.
+     *
+     * @param table         the link table
+     * @param userIds       the user ID of each link
+     * @param permissionIds the permission id of each link
+     */
+    public void addLinks(LinkTable table, List<Long> userIds, List<Long> permissionIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("INSERT INTO " + table.getTable()
+                    + " (id_user, " + table.getColumn() + ")"
+                    + " SELECT * FROM unnest(?::bigint[], ?::bigint[])");
+            ps.setArray(1, con.createArrayOf("bigint", userIds.toArray()));
+            ps.setArray(2, con.createArrayOf("bigint", permissionIds.toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * Removes links between users and permissions, given as two parallel lists.
+     *
+     * @param table         the link table
+     * @param userIds       the user ID of each link
+     * @param permissionIds the permission id of each link
+     */
+    public void removeLinks(LinkTable table, List<Long> userIds, List<Long> permissionIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("DELETE FROM " + table.getTable() + " t"
+                    + " USING unnest(?::bigint[], ?::bigint[]) AS d(id_user, id)"
+                    + " WHERE t.id_user = d.id_user AND t." + table.getColumn() + " = d.id");
+            ps.setArray(1, con.createArrayOf("bigint", userIds.toArray()));
+            ps.setArray(2, con.createArrayOf("bigint", permissionIds.toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * Links a permission to every selected user with an ID in the range, as a
+     * single {@code INSERT ... SELECT ... ON CONFLICT DO NOTHING}.
+     *
+     * @param table        the link table of the permission
+     * @param permissionId the permission to grant
+     * @param fromId       the lowest user ID of the range
+     * @param toId         the highest user ID of the range
+     * @param selection    the users to consider within the range
+     * @return the username by ID of every user that did not have the permission
+     */
+    public Map<Long, String> grantInRange(LinkTable table, long permissionId, long fromId, long toId,
+            UserSelection selection) {
+        StringBuilder sql = new StringBuilder("WITH changed AS (\n")
+                .append("    INSERT INTO ").append(table.getTable())
+                .append(" (id_user, ").append(table.getColumn()).append(")\n")
+                .append("    SELECT u.id_user, ? FROM users u\n")
+                .append("    WHERE u.id_user BETWEEN ? AND ?\n");
+        if (selection.ids() != null) {
+            sql.append("    AND u.id_user = ANY(?::bigint[])\n");
+        }
+        if (selection.memberOf() != null) {
+            sql.append("    AND EXISTS (SELECT 1 FROM ").append(selection.memberOf().getTable())
+                    .append(" m WHERE m.id_user = u.id_user AND m.")
+                    .append(selection.memberOf().getColumn()).append(" = ?)\n");
+        }
+        sql.append("    ON CONFLICT DO NOTHING\n")
+                .append("    RETURNING id_user\n)\n");
+        return queryChanged(sql, permissionId, fromId, toId, selection);
+    }
+
+    /**
+     * Unlinks a permission from every selected user with an ID in the range, as
+     * a single {@code DELETE ... USING}.
+     *
+     * @param table        the link table of the permission
+     * @param permissionId the permission to revoke
+     * @param fromId       the lowest user ID of the range
+     * @param toId         the highest user ID of the range
+     * @param selection    the users to consider within the range
+     * @return the username by ID of every user that had the permission
+     */
+    public Map<Long, String> revokeInRange(LinkTable table, long permissionId, long fromId, long toId,
+            UserSelection selection) {
+        StringBuilder sql = new StringBuilder("WITH changed AS (\n")
+                .append("    DELETE FROM ").append(table.getTable()).append(" t\n");
+        if (selection.memberOf() != null) {
+            sql.append("    USING ").append(selection.memberOf().getTable()).append(" m\n");
+        }
+        sql.append("    WHERE t.").append(table.getColumn()).append(" = ?\n")
+                .append("    AND t.id_user BETWEEN ? AND ?\n");
+        if (selection.ids() != null) {
+            sql.append("    AND t.id_user = ANY(?::bigint[])\n");
+        }
+        if (selection.memberOf() != null) {
+            sql.append("    AND m.id_user = t.id_user AND m.").append(selection.memberOf().getColumn())
+                    .append(" = ?\n");
+        }
+        sql.append("    RETURNING t.id_user\n)\n");
+        return queryChanged(sql, permissionId, fromId, toId, selection);
+    }
+
+    /**
+     * Returns the lowest and highest user IDs, to split a job over all users in
+     * ranges.
+     *
+     * @return the lowest and highest IDs, or null if there are no users
+     */
+    public long[] findIdRange() {
+        return jdbcTemplate.query("SELECT min(id_user) AS lo, max(id_user) AS hi FROM users", rs -> {
+            rs.next();
+            long lo = rs.getLong("lo");
+            return rs.wasNull() ? null : new long[] { lo, rs.getLong("hi") };
+        });
+    }
+
+    private Map<Long, String> queryChanged(StringBuilder sql, long permissionId, long fromId, long toId,
+            UserSelection selection) {
+        sql.append("SELECT c.id_user, u.username FROM changed c JOIN users u ON u.id_user = c.id_user");
+
+        Map<Long, String> changed = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString());
+            int i = 1;
+            ps.setLong(i++, permissionId);
+            ps.setLong(i++, fromId);
+            ps.setLong(i++, toId);
+            if (selection.ids() != null) {
+                ps.setArray(i++, con.createArrayOf("bigint", selection.ids()));
+            }
+            if (selection.memberOf() != null) {
+                ps.setLong(i++, selection.memberOfId());
+            }
+            return ps;
+        }, rs -> {
+            changed.put(rs.getLong("id_user"), rs.getString("username"));
+        });
+        return changed;
+    }
+
+    private void insertLinks(LinkTable table, List<NewUser> users, Map<String, Long> ids,
+            Function<NewUser, PermissionSet> permissions) {
+        List<Long> userIds = new ArrayList<>();
+        List<Long> permissionIds = new ArrayList<>();
+        for (NewUser user : users) {
+            Long userId = ids.get(user.username());
+            for (Long permissionId : permissions.apply(user)) {
+                userIds.add(userId);
+                permissionIds.add(permissionId);
+            }
+        }
+        addLinks(table, userIds, permissionIds);
+    }
+
+    private void insertMasks(List<NewUser> users, Map<String, Long> ids) {
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    INSERT INTO user_permissions (id_user, roles_mask, modules_mask, submodules_mask)
+                    SELECT * FROM unnest(?::bigint[], ?::bigint[], ?::bigint[], ?::bigint[])""");
+            ps.setArray(1, array(con, "bigint", users, user -> ids.get(user.username())));
+            ps.setArray(2, array(con, "bigint", users, user -> user.roles().toMask()));
+            ps.setArray(3, array(con, "bigint", users, user -> user.modules().toMask()));
+            ps.setArray(4, array(con, "bigint", users, user -> user.submodules().toMask()));
+            return ps;
+        });
+    }
+
+    private static Array array(Connection con, String type, List<NewUser> users, Function<NewUser, ?> column)
+            throws SQLException {
+        Object[] values = new Object[users.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = column.apply(users.get(i));
+        }
+        return con.createArrayOf(type, values);
+    }
+
+    /**
+     * Columns of {@code users} that can be updated.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public enum UserColumn {
+
+        USERNAME("username"),
+        EMAIL("email"),
+        PASSWORD("password"),
+        ENABLED("enabled"),
+        IS_ADMIN("is_admin");
+
+        private final String column;
+    }
+
+    /**
+     * Tables linking users to their roles, modules and submodules.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public enum LinkTable {
+
+        ROLES("users_roles", "id_role"),
+        MODULES("users_modules", "id_module"),
+        SUBMODULES("users_submodules", "id_submodule");
+
+        private final String table;
+
+        private final String column;
+    }
+
+    /**
+     * Users targeted by a set-based permission change, within an ID range. With
+     * neither explicit IDs nor a permission, every user of the range is
+     * selected.
+     *
+     * @param ids        only these user IDs, or null
+     * @param memberOf   only users linked in this table to {@code memberOfId}, or
+     *                   null
+     * @param memberOfId the permission the users must have, with
+     *                   {@code memberOf}
+     */
+    public record UserSelection(Long[] ids, LinkTable memberOf, Long memberOfId) {
+    }
+
+    /**
+     * A user to insert, already validated and with its password hashed.
+     *
+     * @param username     the username
+     * @param email        the email
+     * @param passwordHash the BCrypt hash of the password
+     * @param enabled      whether the user can log in
+     * @param isAdmin      whether the user is an administrator
+     * @param roles        the role ids
+     * @param modules      the module ids
+     * @param submodules   the submodule ids
+     */
+    public record NewUser(String username, String email, String passwordHash, boolean enabled, boolean isAdmin,
+            PermissionSet roles, PermissionSet modules, PermissionSet submodules) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.dossantosh.usersmanagement.repositories;
+
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.dossantosh.usersmanagement.models.UserPermissions;
+
+/**
+ * Repository interface for managing {@link UserPermissions} entities.
+ * 
+ * Besides the JPA writes done per user, the masks can be recomputed in bulk
+ * from the link tables for writes that bypass the entities.
+ */
+@Repository
+public interface UserPermissionsRepository extends JpaRepository<UserPermissions, Long> {
+
+    /**
+     * Recomputes the permission masks of the given users from the link tables,
+     * inserting or updating their rows. A mask is set to null when the user has
+     * an id of that kind outside 1..64.
+     *
+     * @param ids the user IDs to refresh
+     * @return the number of rows written
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_permissions (id_user, roles_mask, modules_mask, submodules_mask)
+            SELECT
+                u.id_user,
+                (
+                    SELECT CASE WHEN bool_or(ur.id_role NOT BETWEEN 1 AND 64) THEN NULL
+                                ELSE COALESCE(bit_or(1::bigint << (ur.id_role - 1)::int), 0) END
+                    FROM users_roles ur
+                    WHERE ur.id_user = u.id_user
+                ),
+                (
+                    SELECT CASE WHEN bool_or(um.id_module NOT BETWEEN 1 AND 64) THEN NULL
+                                ELSE COALESCE(bit_or(1::bigint << (um.id_module - 1)::int), 0) END
+                    FROM users_modules um
+                    WHERE um.id_user = u.id_user
+                ),
+                (
+                    SELECT CASE WHEN bool_or(us.id_submodule NOT BETWEEN 1 AND 64) THEN NULL
+                                ELSE COALESCE(bit_or(1::bigint << (us.id_submodule - 1)::int), 0) END
+                    FROM users_submodules us
+                    WHERE us.id_user = u.id_user
+                )
+            FROM users u
+            WHERE u.id_user IN (:ids)
+            ON CONFLICT (id_user) DO UPDATE SET
+                roles_mask = EXCLUDED.roles_mask,
+                modules_mask = EXCLUDED.modules_mask,
+                submodules_mask = EXCLUDED.submodules_mask
+            """, nativeQuery = true)
+    int refreshByUserIds(@Param("ids") Collection<Long> ids);
+}
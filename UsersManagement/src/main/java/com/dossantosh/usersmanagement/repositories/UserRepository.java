@@ -1,30 +1,28 @@
 package com.dossantosh.usersmanagement.repositories;
 
-import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
+import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuthMaskProjection;
 import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuthProjection;
 import com.dossantosh.usersmanagement.models.User;
 
-import com.dossantosh.usersmanagement.projections.UserDTO;
-
 /**
  * Repository interface for managing {@link User} entities.
  * 
  * Provides methods for retrieving users by username, email, and ID,
  * checking existence, and retrieving detailed authentication and user data
- * with custom queries and keyset pagination.
+ * with custom queries. Keyset pagination is implemented by the
+ * {@link UserRepositoryCustom} fragment.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 
     /**
      * Finds a user by their exact username.
@@ -70,8 +68,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Retrieves authentication-related information for a user by username,
      * including roles, modules, and submodules.
      *
-     * Uses a native SQL query to aggregate user permissions and details required
-     * for authentication.
+     * Uses a native SQL query that reads the permission ids straight from the
+     * link tables through their primary key indexes, one LATERAL aggregate per
+     * table, without joining the master tables. Users without a permission of a
+     * kind get an empty array.
      *
      * @param username the username to search for
      * @return an Optional containing a {@link UserAuthProjection} with auth info,
@@ -84,72 +84,56 @@ public interface UserRepository extends JpaRepository<User, Long> {
                 u.email AS email,
                 u.password AS password,
                 u.enabled AS enabled,
-                (
-                    SELECT array_agg(r.id_role)
-                    FROM roles r
-                    JOIN users_roles ur ON r.id_role = ur.id_role
-                    WHERE ur.id_user = u.id_user
-                ) AS roles,
-                (
-                    SELECT array_agg(m.id_module)
-                    FROM modules m
-                    JOIN users_modules um ON m.id_module = um.id_module
-                    WHERE um.id_user = u.id_user
-                ) AS modules,
-                (
-                    SELECT array_agg(s.id_submodule)
-                    FROM submodules s
-                    JOIN users_submodules us ON s.id_submodule = us.id_submodule
-                    WHERE us.id_user = u.id_user
-                ) AS submodules
+                u.is_admin AS isAdmin,
+                r.ids AS roles,
+                m.ids AS modules,
+                s.ids AS submodules
             FROM users u
+            CROSS JOIN LATERAL (
+                SELECT COALESCE(array_agg(ur.id_role ORDER BY ur.id_role), '{}') AS ids
+                FROM users_roles ur
+                WHERE ur.id_user = u.id_user
+            ) r
+            CROSS JOIN LATERAL (
+                SELECT COALESCE(array_agg(um.id_module ORDER BY um.id_module), '{}') AS ids
+                FROM users_modules um
+                WHERE um.id_user = u.id_user
+            ) m
+            CROSS JOIN LATERAL (
+                SELECT COALESCE(array_agg(us.id_submodule ORDER BY us.id_submodule), '{}') AS ids
+                FROM users_submodules us
+                WHERE us.id_user = u.id_user
+            ) s
             WHERE u.username = :username
-                                """, nativeQuery = true)
+            """, nativeQuery = true)
     Optional<UserAuthProjection> findUserAuthByUsername(String username);
 
     /**
-     * Returns a paginated list of users matching optional filters, using keyset
-     * pagination.
+     * Retrieves authentication-related information for a user by username, with
+     * the permissions read as bit masks from {@code user_permissions}.
      *
-     * Supports filtering by ID, username prefix, email prefix, pagination cursor
-     * (lastId),
-     * limit, and direction (NEXT or PREVIOUS).
+     * Reads one row of each table by primary or unique key, without aggregating.
      *
-     * @param id        optional exact user ID to filter
-     * @param username  optional username prefix (case-insensitive)
-     * @param email     optional email prefix (case-insensitive)
-     * @param lastId    the last seen user ID for pagination cursor
-     * @param limit     max number of users to return
-     * @param direction pagination direction ("NEXT" or "PREVIOUS")
-     * @return a list of {@link UserDTO} matching the filters and pagination
+     * @param username the username to search for
+     * @return an Optional containing a {@link UserAuthMaskProjection} with auth
+     *         info, or empty if user not found
      */
     @Query(value = """
-                SELECT u.id_user AS id,
-                       u.username AS username,
-                       u.email AS email,
-                       u.enabled AS enabled,
-                       u.is_admin AS isAdmin
-                FROM users u
-                WHERE (:id IS NULL OR u.id_user = :id)
-                  AND (:username IS NULL OR LOWER(u.username) LIKE CONCAT(:username, '%'))
-                  AND (:email IS NULL OR LOWER(u.email) LIKE CONCAT(:email, '%'))
-                  AND (
-                      (:direction = 'NEXT' AND (:lastId IS NULL OR u.id_user > :lastId))
-                      OR
-                      (:direction = 'PREVIOUS' AND (:lastId IS NULL OR u.id_user < :lastId))
-                  )
-                ORDER BY
-                  CASE WHEN :direction = 'NEXT' THEN u.id_user END ASC,
-                  CASE WHEN :direction = 'PREVIOUS' THEN u.id_user END DESC
-                LIMIT :limit
+            SELECT
+                u.id_user AS id,
+                u.username AS username,
+                u.email AS email,
+                u.password AS password,
+                u.enabled AS enabled,
+                u.is_admin AS isAdmin,
+                p.roles_mask AS rolesMask,
+                p.modules_mask AS modulesMask,
+                p.submodules_mask AS submodulesMask
+            FROM users u
+            LEFT JOIN user_permissions p ON p.id_user = u.id_user
+            WHERE u.username = :username
             """, nativeQuery = true)
-    List<UserDTO> findUsersKeyset(
-            @Param("id") Long id,
-            @Param("username") String username,
-            @Param("email") String email,
-            @Param("lastId") Long lastId,
-            @Param("limit") int limit,
-            @Param("direction") String direction);
+    Optional<UserAuthMaskProjection> findUserAuthMasksByUsername(String username);
 
     /**
      * Finds a user by ID including all associated roles, modules, and submodules,
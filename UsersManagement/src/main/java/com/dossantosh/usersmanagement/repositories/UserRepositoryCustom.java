@@ -0,0 +1,72 @@
+package com.dossantosh.usersmanagement.repositories;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.dossantosh.usersmanagement.common.global.page.Direction;
+import com.dossantosh.usersmanagement.common.global.page.KeysetCursor;
+import com.dossantosh.usersmanagement.common.global.page.KeysetRow;
+import com.dossantosh.usersmanagement.common.global.page.UserSort;
+import com.dossantosh.usersmanagement.projections.UserDTO;
+
+/**
+ * Custom fragment of {@link UserRepository} for queries whose SQL is built at
+ * runtime.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Returns a paginated list of users matching optional filters, using keyset
+     * pagination.
+     *
+     * Only the given filters are part of the SQL, so each combination of
+     * filters gets its own plan, with index range scans on the sort key and id
+     * and on the lowercased username and email prefixes.
+     *
+     * @param id        optional exact user ID to filter
+     * @param username  optional username prefix (case-insensitive)
+     * @param email     optional email prefix (case-insensitive)
+     * @param sort      the order of the users
+     * @param cursor    optional position to page from, issued for the same sort
+     * @param limit     max number of users to return
+     * @param direction pagination direction, NEXT returns the users after the
+     *                  cursor in ascending order and PREVIOUS the users before it
+     *                  in descending order
+     * @return the users matching the filters and pagination, with their sort keys
+     */
+    List<KeysetRow<UserDTO>> findUsersKeyset(Long id, String username, String email, UserSort sort,
+            KeysetCursor cursor, int limit, Direction direction);
+
+    /**
+     * Counts the users matching the filters of {@link #findUsersKeyset}.
+     *
+     * @param id       optional exact user ID to filter
+     * @param username optional username prefix (case-insensitive)
+     * @param email    optional email prefix (case-insensitive)
+     * @return the exact number of matching users
+     */
+    long countUsers(Long id, String username, String email);
+
+    /**
+     * Streams every user matching the filters of {@link #findUsersKeyset} in id
+     * order, reading them through a database cursor so that only one batch of
+     * rows is in memory at a time. Must be called within a transaction, which
+     * keeps the cursor open.
+     *
+     * @param id        optional exact user ID to filter
+     * @param username  optional username prefix (case-insensitive)
+     * @param email     optional email prefix (case-insensitive)
+     * @param fetchSize number of rows fetched from the cursor at a time
+     * @param consumer  receives each user, in order
+     */
+    void streamUsers(Long id, String username, String email, int fetchSize, Consumer<UserDTO> consumer);
+
+    /**
+     * Estimates the number of users from the planner statistics, scaled to the
+     * current size of the table, without scanning it.
+     *
+     * @return the estimated number of users, or null if the table has never
+     *         been analyzed
+     */
+    Long estimateUsers();
+}
@@ -0,0 +1,205 @@
+package com.dossantosh.usersmanagement.repositories;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.dossantosh.usersmanagement.common.global.page.Direction;
+import com.dossantosh.usersmanagement.common.global.page.KeysetCursor;
+import com.dossantosh.usersmanagement.common.global.page.KeysetRow;
+import com.dossantosh.usersmanagement.common.global.page.UserSort;
+import com.dossantosh.usersmanagement.projections.UserDTO;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Implementation of {@link UserRepositoryCustom} on top of plain JDBC.
+ * <p>
+ * Prefix filters are written as {@code ~>=~}/{@code ~<~} ranges rather than
+ * {@code LIKE}, so the {@code text_pattern_ops} expression indexes created by
+ * {@code schema-postgres.sql} are used even when the statement is prepared
+ * with a generic plan. Sorted pages compare {@code (key, id_user)} rows, which
+ * the composite indexes of the same script serve as a single range scan in
+ * both directions.
+ * </p>
+ */
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<KeysetRow<UserDTO>> findUsersKeyset(Long id, String username, String email, UserSort sort,
+            KeysetCursor cursor, int limit, Direction direction) {
+
+        String key = sort.getKeyExpression();
+
+        StringBuilder sql = new StringBuilder("""
+                SELECT u.id_user AS id,
+                       u.username AS username,
+                       u.email AS email,
+                       u.enabled AS enabled,
+                       u.is_admin AS "isAdmin",
+                       """);
+        sql.append(key != null ? key : "NULL").append(" AS \"sortKey\"");
+        sql.append("\nFROM users u\nWHERE TRUE");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        appendFilters(sql, params, id, username, email);
+
+        boolean next = direction != Direction.PREVIOUS;
+        String comparison = next ? " > " : " < ";
+        if (cursor != null) {
+            // Row comparisons match the (key, id_user) composite indexes
+            if (key != null) {
+                sql.append("\n  AND (").append(key).append(", u.id_user)").append(comparison)
+                        .append("(:lastKey, :lastId)");
+                params.addValue("lastKey", cursor.key());
+            } else {
+                sql.append("\n  AND u.id_user").append(comparison).append(":lastId");
+            }
+            params.addValue("lastId", cursor.id());
+        }
+
+        String order = next ? " ASC" : " DESC";
+        sql.append("\nORDER BY ");
+        if (key != null) {
+            sql.append(key).append(order).append(", ");
+        }
+        sql.append("u.id_user").append(order);
+        sql.append("\nLIMIT :limit");
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new KeysetRow<>(
+                mapUser(rs),
+                rs.getString("sortKey")));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void streamUsers(Long id, String username, String email, int fetchSize, Consumer<UserDTO> consumer) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT u.id_user AS id,
+                       u.username AS username,
+                       u.email AS email,
+                       u.enabled AS enabled,
+                       u.is_admin AS "isAdmin"
+                FROM users u
+                WHERE TRUE""");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        appendFilters(sql, params, id, username, email);
+        sql.append("\nORDER BY u.id_user ASC");
+
+        // The driver only uses a cursor when a fetch size is set outside autocommit
+        JdbcTemplate streamingTemplate = new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+        streamingTemplate.setFetchSize(fetchSize);
+        new NamedParameterJdbcTemplate(streamingTemplate).query(sql.toString(), params,
+                (RowCallbackHandler) rs -> consumer.accept(mapUser(rs)));
+    }
+
+    private static UserDTO mapUser(ResultSet rs) throws SQLException {
+        return new UserDTO(
+                rs.getLong("id"),
+                rs.getString("username"),
+                rs.getString("email"),
+                (Boolean) rs.getObject("enabled"),
+                (Boolean) rs.getObject("isAdmin"));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long countUsers(Long id, String username, String email) {
+        StringBuilder sql = new StringBuilder("SELECT count(*) FROM users u\nWHERE TRUE");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        appendFilters(sql, params, id, username, email);
+
+        Long count = jdbcTemplate.queryForObject(sql.toString(), params, Long.class);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Long estimateUsers() {
+        // Same extrapolation as the planner: tuple density times current pages
+        return jdbcTemplate.queryForObject("""
+                SELECT CASE
+                           WHEN c.reltuples < 0 OR c.relpages = 0 THEN NULL
+                           ELSE (c.reltuples / c.relpages
+                                 * (pg_relation_size(c.oid) / current_setting('block_size')::int))::bigint
+                       END
+                FROM pg_class c
+                WHERE c.oid = 'users'::regclass
+                """, new MapSqlParameterSource(), Long.class);
+    }
+
+    /**
+     * Appends the predicates of the given filters.
+     */
+    private static void appendFilters(StringBuilder sql, MapSqlParameterSource params, Long id, String username,
+            String email) {
+        if (id != null) {
+            sql.append("\n  AND u.id_user = :id");
+            params.addValue("id", id);
+        }
+        appendPrefix(sql, params, "lower(u.username)", "username", username);
+        appendPrefix(sql, params, "lower(u.email)", "email", email);
+    }
+
+    /**
+     * Appends a case-insensitive prefix filter as a range over the lowercased
+     * column: {@code prefix <= value < upper}, where {@code upper} is the
+     * smallest string greater than every string starting with the prefix.
+     */
+    private static void appendPrefix(StringBuilder sql, MapSqlParameterSource params, String column,
+            String name, String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return;
+        }
+        String lower = prefix.toLowerCase(Locale.ROOT);
+        sql.append("\n  AND ").append(column).append(" ~>=~ :").append(name);
+        params.addValue(name, lower);
+
+        String upper = prefixUpperBound(lower);
+        if (upper != null) {
+            sql.append("\n  AND ").append(column).append(" ~<~ :").append(name).append("Upper");
+            params.addValue(name + "Upper", upper);
+        }
+    }
+
+    /**
+     * Increments the last code point of the prefix that can be incremented,
+     * dropping the ones that cannot. UTF-8 keeps code point order, so the
+     * result bounds the prefix range in byte-wise comparisons.
+     *
+     * @return the exclusive upper bound, or null if there is none
+     */
+    static String prefixUpperBound(String prefix) {
+        int[] codePoints = prefix.codePoints().toArray();
+        for (int i = codePoints.length - 1; i >= 0; i--) {
+            int next = codePoints[i] + 1;
+            if (next >= Character.MIN_SURROGATE && next <= Character.MAX_SURROGATE) {
+                next = Character.MAX_SURROGATE + 1;
+            }
+            if (next <= Character.MAX_CODE_POINT) {
+                codePoints[i] = next;
+                return new String(codePoints, 0, i + 1);
+            }
+        }
+        return null;
+    }
+}
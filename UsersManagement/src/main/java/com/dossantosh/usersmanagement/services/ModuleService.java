@@ -7,31 +7,43 @@ import java.util.List;
 import org.springframework.stereotype.Service;
 
 import com.dossantosh.usersmanagement.models.Modules;
-import com.dossantosh.usersmanagement.repositories.ModuleRepository;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 
+/**
+ * Read access to the modules, served from the {@link PermissionCatalog}.
+ */
 @RequiredArgsConstructor
 @Service
 public class ModuleService {
 
-    private final ModuleRepository moduleRepository;
+    private final PermissionCatalog permissionCatalog;
 
     public Modules findById(Long id) {
-        return moduleRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Módulo con ID " + id + " no encontrado"));
+        Modules module = permissionCatalog.getModule(id);
+        if (module == null) {
+            throw new EntityNotFoundException("Módulo con ID " + id + " no encontrado");
+        }
+        return module;
     }
 
     public List<Modules> findAllById(List<Long> lista) {
-        return new ArrayList<>(moduleRepository.findAllById(lista));
+        List<Modules> modules = new ArrayList<>();
+        for (Long id : lista) {
+            Modules module = permissionCatalog.getModule(id);
+            if (module != null) {
+                modules.add(module);
+            }
+        }
+        return modules;
     }
 
     public List<Modules> findAll() {
-        return new ArrayList<>(moduleRepository.findAll());
+        return new ArrayList<>(permissionCatalog.getModules());
     }
 
     public boolean existById(Long id) {
-        return moduleRepository.existsById(id);
+        return permissionCatalog.getModule(id) != null;
     }
 }
@@ -0,0 +1,249 @@
+package com.dossantosh.usersmanagement.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.dossantosh.usersmanagement.common.security.custom.auth.PermissionSet;
+import com.dossantosh.usersmanagement.models.Modules;
+import com.dossantosh.usersmanagement.models.Roles;
+import com.dossantosh.usersmanagement.models.Submodules;
+import com.dossantosh.usersmanagement.repositories.ModuleRepository;
+import com.dossantosh.usersmanagement.repositories.RoleRepository;
+import com.dossantosh.usersmanagement.repositories.SubmoduleRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory catalog of the roles, modules and submodules.
+ * <p>
+ * The three tables are read into an immutable snapshot, with the entities
+ * indexed by id in arrays, so lookups and listings never reach the database.
+ * The snapshot is loaded once the application is ready and replaced as a whole
+ * on {@link #refresh()}, which runs after a local change, on request of an
+ * administrator and periodically to pick up changes made elsewhere. Readers
+ * always see one consistent snapshot.
+ * </p>
+ * <p>
+ * Each snapshot carries a version computed from its content, which stays the
+ * same as long as the data does and serves as ETag of the permissions list.
+ * The entities are detached and shared, so they must not be modified.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PermissionCatalog {
+
+    private final RoleRepository roleRepository;
+
+    private final ModuleRepository moduleRepository;
+
+    private final SubmoduleRepository submoduleRepository;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    // Not a monitor, which would pin a virtual thread for the queries
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    /**
+     * Loads the catalog once the database scripts have run.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    /**
+     * Reloads the catalog periodically, so that changes made by other nodes or
+     * directly in the database are picked up.
+     */
+    @Scheduled(fixedDelayString = "${permissions.catalog.refresh-interval:300000}",
+            initialDelayString = "${permissions.catalog.refresh-interval:300000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Reads the three tables again and swaps the snapshot when their content
+     * changed. Refreshes run one at a time, so a refresh that read the tables
+     * earlier cannot replace the snapshot of a later one.
+     *
+     * @return the version of the current snapshot
+     */
+    public String refresh() {
+        refreshLock.lock();
+        try {
+            Snapshot loaded = Snapshot.of(roleRepository.findAll(), moduleRepository.findAll(),
+                    submoduleRepository.findAll());
+            Snapshot previous = snapshot.get();
+            if (previous != null && previous.version().equals(loaded.version())) {
+                return previous.version();
+            }
+            snapshot.set(loaded);
+            log.info("Permission catalog loaded: {} roles, {} modules, {} submodules, version {}",
+                    loaded.roles().size(), loaded.modules().size(), loaded.submodules().size(), loaded.version());
+            return loaded.version();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the version of the current snapshot, derived from its content.
+     *
+     * @return the version
+     */
+    public String getVersion() {
+        return current().version();
+    }
+
+    /**
+     * Returns the role with the given id.
+     *
+     * @param id the role id
+     * @return the role, or null if there is none
+     */
+    public Roles getRole(long id) {
+        return get(current().rolesById(), id);
+    }
+
+    /**
+     * Returns the module with the given id.
+     *
+     * @param id the module id
+     * @return the module, or null if there is none
+     */
+    public Modules getModule(long id) {
+        return get(current().modulesById(), id);
+    }
+
+    /**
+     * Returns the submodule with the given id.
+     *
+     * @param id the submodule id
+     * @return the submodule, or null if there is none
+     */
+    public Submodules getSubmodule(long id) {
+        return get(current().submodulesById(), id);
+    }
+
+    /**
+     * Returns all the roles, ordered by id.
+     *
+     * @return an unmodifiable list of the roles
+     */
+    public List<Roles> getRoles() {
+        return current().roles();
+    }
+
+    /**
+     * Returns all the modules, ordered by id.
+     *
+     * @return an unmodifiable list of the modules
+     */
+    public List<Modules> getModules() {
+        return current().modules();
+    }
+
+    /**
+     * Returns all the submodules, ordered by id.
+     *
+     * @return an unmodifiable list of the submodules
+     */
+    public List<Submodules> getSubmodules() {
+        return current().submodules();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            // Used before the application is ready: load on first use
+            refresh();
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    private static <T> T get(T[] byId, long id) {
+        return id >= 0 && id < byId.length ? byId[(int) id] : null;
+    }
+
+    /**
+     * Immutable content of the catalog at one point in time.
+     */
+    private record Snapshot(String version, List<Roles> roles, List<Modules> modules, List<Submodules> submodules,
+            Roles[] rolesById, Modules[] modulesById, Submodules[] submodulesById) {
+
+        static Snapshot of(List<Roles> roles, List<Modules> modules, List<Submodules> submodules) {
+            List<Roles> sortedRoles = sorted(roles, Roles::getId);
+            List<Modules> sortedModules = sorted(modules, Modules::getId);
+            List<Submodules> sortedSubmodules = sorted(submodules, Submodules::getId);
+
+            return new Snapshot(
+                    version(sortedRoles, sortedModules, sortedSubmodules),
+                    sortedRoles,
+                    sortedModules,
+                    sortedSubmodules,
+                    index(sortedRoles, Roles::getId, new Roles[0]),
+                    index(sortedModules, Modules::getId, new Modules[0]),
+                    index(sortedSubmodules, Submodules::getId, new Submodules[0]));
+        }
+
+        private static <T> List<T> sorted(List<T> entities, ToLongFunction<T> id) {
+            return entities.stream().sorted(Comparator.comparingLong(id)).toList();
+        }
+
+        private static <T> T[] index(List<T> sorted, ToLongFunction<T> id, T[] empty) {
+            if (sorted.isEmpty()) {
+                return empty;
+            }
+            long maxId = id.applyAsLong(sorted.get(sorted.size() - 1));
+            if (maxId > PermissionSet.MAX_ID) {
+                throw new IllegalStateException("Permission id out of range: " + maxId);
+            }
+            T[] byId = Arrays.copyOf(empty, (int) maxId + 1);
+            for (T entity : sorted) {
+                byId[(int) id.applyAsLong(entity)] = entity;
+            }
+            return byId;
+        }
+
+        private static String version(List<Roles> roles, List<Modules> modules, List<Submodules> submodules) {
+            StringBuilder content = new StringBuilder();
+            for (Roles role : roles) {
+                content.append("r\t").append(role.getId()).append('\t').append(role.getName()).append('\n');
+            }
+            for (Modules module : modules) {
+                content.append("m\t").append(module.getId()).append('\t').append(module.getName())
+                        .append('\t').append(module.getImage()).append('\n');
+            }
+            for (Submodules submodule : submodules) {
+                content.append("s\t").append(submodule.getId()).append('\t').append(submodule.getName())
+                        .append('\t').append(submodule.getModule() != null ? submodule.getModule().getId() : null)
+                        .append('\n');
+            }
+
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256")
+                        .digest(content.toString().getBytes(StandardCharsets.UTF_8));
+                return HexFormat.of().formatHex(digest, 0, 8);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.dossantosh.usersmanagement.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.dossantosh.usersmanagement.common.global.errors.custom.BusinessException;
+import com.dossantosh.usersmanagement.common.security.custom.auth.bus.UserAuthCache;
+import com.dossantosh.usersmanagement.common.security.jwt.JwtUtil;
+import com.dossantosh.usersmanagement.common.security.jwt.TokenRevocationStore;
+import com.dossantosh.usersmanagement.projections.PermissionJobRequest;
+import com.dossantosh.usersmanagement.projections.PermissionJobRequest.Operation;
+import com.dossantosh.usersmanagement.projections.PermissionJobStatus;
+import com.dossantosh.usersmanagement.projections.PermissionJobStatus.State;
+import com.dossantosh.usersmanagement.repositories.UserJdbcRepository;
+import com.dossantosh.usersmanagement.repositories.UserJdbcRepository.LinkTable;
+import com.dossantosh.usersmanagement.repositories.UserJdbcRepository.UserSelection;
+import com.dossantosh.usersmanagement.repositories.UserPermissionsRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service granting or revoking one permission to a whole set of users in the
+ * background.
+ * <p>
+ * A job is split into ranges of user IDs. Each range is a single set-based
+ * statement, run with the refresh of the permission masks of the users it
+ * changed in its own transaction, so a job of any size never holds long locks
+ * and a failed range can simply be run again. Ranges run in parallel on a
+ * bounded pool shared by all jobs, which caps the connections taken from the
+ * pool.
+ * </p>
+ * <p>
+ * The cached principals of the changed users are evicted after each range, or
+ * the whole cache when a range changed too many users. When tokens carry the
+ * principal ({@code jwt.stateless-principal}), a revocation also revokes the
+ * tokens of the changed users, since such a token would keep the permission
+ * until it expires. Jobs are kept for {@code retention} after they finish so
+ * their status can be read.
+ * </p>
+ */
+@Slf4j
+@Service
+@ConfigurationProperties(prefix = "permissions.jobs")
+@RequiredArgsConstructor
+public class PermissionJobService {
+
+    private final UserJdbcRepository userJdbcRepository;
+
+    private final UserPermissionsRepository userPermissionsRepository;
+
+    private final PermissionCatalog permissionCatalog;
+
+    private final UserAuthCache userAuthCache;
+
+    private final TokenRevocationStore revocationStore;
+
+    private final JwtUtil jwtUtil;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Width of the user ID range changed by one statement, or number of IDs per
+     * statement when the users are listed.
+     */
+    @Getter
+    @Setter
+    private int chunkSize = 10_000;
+
+    /**
+     * Number of ranges run at the same time, across all jobs.
+     */
+    @Getter
+    @Setter
+    private int parallelism = 4;
+
+    /**
+     * Users changed by one range above which the whole principal cache is evicted
+     * instead of each user.
+     */
+    @Getter
+    @Setter
+    private int evictAllThreshold = 1_000;
+
+    /**
+     * Time a finished job stays available to the status endpoint.
+     */
+    @Getter
+    @Setter
+    private Duration retention = Duration.ofHours(1);
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Builds the pool and binds its meters once the properties are set.
+     */
+    @PostConstruct
+    public void init() {
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                Thread.ofPlatform().name("permission-job-", 0).daemon(true).factory());
+        new ExecutorServiceMetrics(executor, "permissions.jobs", List.of()).bindTo(meterRegistry);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Stops running ranges on shutdown; interrupted jobs can be submitted again.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Validates the request and starts the job in the background.
+     *
+     * @param request The permission to grant or revoke and the users targeted.
+     * @return The status of the job just started.
+     * @throws BusinessException if the request is incomplete or names an unknown
+     *                           permission.
+     */
+    public PermissionJobStatus submit(PermissionJobRequest request) {
+        if (request.getOperation() == null || request.getType() == null || request.getPermissionId() == null) {
+            throw new BusinessException("operation, type and permissionId are required");
+        }
+        checkExists(request.getType(), request.getPermissionId());
+        if ((request.getMemberOfType() == null) != (request.getMemberOfId() == null)) {
+            throw new BusinessException("memberOfType and memberOfId go together");
+        }
+        if (request.getMemberOfType() != null) {
+            checkExists(request.getMemberOfType(), request.getMemberOfId());
+        }
+
+        List<Chunk> chunks = chunks(request);
+        Job job = new Job(UUID.randomUUID().toString(), request, chunks.size());
+        jobs.put(job.id, job);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(chunks.size());
+        for (Chunk chunk : chunks) {
+            futures.add(CompletableFuture.runAsync(() -> run(job, chunk), executor));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, error) -> job.finish());
+
+        log.info("Permission job {} started: {} {} {} in {} chunks", job.id, request.getOperation(),
+                request.getType(), request.getPermissionId(), chunks.size());
+        return job.toStatus();
+    }
+
+    /**
+     * Returns the status of a job.
+     *
+     * @param id The ID of the job.
+     * @return The status of the job.
+     * @throws EntityNotFoundException if the job does not exist or has expired.
+     */
+    public PermissionJobStatus getStatus(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new EntityNotFoundException("Permission job " + id + " not found");
+        }
+        return job.toStatus();
+    }
+
+    /**
+     * Drops the jobs finished for longer than the retention.
+     */
+    @Scheduled(fixedDelayString = "${permissions.jobs.purge-interval:60000}")
+    public void purgeFinished() {
+        Instant oldest = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt.get() != null && job.finishedAt.get().isBefore(oldest));
+    }
+
+    private void checkExists(LinkTable type, long id) {
+        Object permission = switch (type) {
+            case ROLES -> permissionCatalog.getRole(id);
+            case MODULES -> permissionCatalog.getModule(id);
+            case SUBMODULES -> permissionCatalog.getSubmodule(id);
+        };
+        if (permission == null) {
+            throw new BusinessException("Unknown " + type.name().toLowerCase() + " " + id);
+        }
+    }
+
+    /**
+     * Splits the users targeted by the request in ID ranges.
+     */
+    private List<Chunk> chunks(PermissionJobRequest request) {
+        List<Chunk> chunks = new ArrayList<>();
+
+        if (request.getUserIds() != null) {
+            Long[] ids = request.getUserIds().stream().filter(id -> id != null).sorted().toArray(Long[]::new);
+            for (int from = 0; from < ids.length; from += chunkSize) {
+                Long[] slice = Arrays.copyOfRange(ids, from, Math.min(from + chunkSize, ids.length));
+                chunks.add(new Chunk(slice[0], slice[slice.length - 1],
+                        new UserSelection(slice, request.getMemberOfType(), request.getMemberOfId())));
+            }
+            return chunks;
+        }
+
+        long[] range = userJdbcRepository.findIdRange();
+        if (range == null) {
+            return chunks;
+        }
+        UserSelection selection = new UserSelection(null, request.getMemberOfType(), request.getMemberOfId());
+        for (long from = range[0]; from <= range[1]; from += chunkSize) {
+            chunks.add(new Chunk(from, Math.min(from + chunkSize - 1, range[1]), selection));
+        }
+        return chunks;
+    }
+
+    private void run(Job job, Chunk chunk) {
+        PermissionJobRequest request = job.request;
+        try {
+            Map<Long, String> changed = transactionTemplate.execute(status -> {
+                Map<Long, String> users = request.getOperation() == Operation.GRANT
+                        ? userJdbcRepository.grantInRange(request.getType(), request.getPermissionId(),
+                                chunk.fromId(), chunk.toId(), chunk.selection())
+                        : userJdbcRepository.revokeInRange(request.getType(), request.getPermissionId(),
+                                chunk.fromId(), chunk.toId(), chunk.selection());
+                if (!users.isEmpty()) {
+                    userPermissionsRepository.refreshByUserIds(users.keySet());
+                }
+                return users;
+            });
+
+            if (changed.size() > evictAllThreshold) {
+                userAuthCache.evictAll();
+            } else {
+                changed.values().forEach(userAuthCache::evict);
+            }
+            if (request.getOperation() == Operation.REVOKE && jwtUtil.isStatelessPrincipal()) {
+                changed.values().forEach(revocationStore::revokeAllForUser);
+            }
+            job.affectedUsers.addAndGet(changed.size());
+            job.completedChunks.incrementAndGet();
+        } catch (RuntimeException e) {
+            log.warn("Permission job {} failed on users {} to {}", job.id, chunk.fromId(), chunk.toId(), e);
+            job.failedChunks.incrementAndGet();
+            job.error.compareAndSet(null, "Users " + chunk.fromId() + " to " + chunk.toId() + " could not be changed");
+        }
+    }
+
+    /**
+     * IDs range changed by one statement.
+     */
+    private record Chunk(long fromId, long toId, UserSelection selection) {
+    }
+
+    /**
+     * A running or finished job, updated concurrently by its ranges.
+     */
+    private static final class Job {
+
+        private final String id;
+
+        private final PermissionJobRequest request;
+
+        private final int totalChunks;
+
+        private final Instant startedAt = Instant.now();
+
+        private final AtomicInteger completedChunks = new AtomicInteger();
+
+        private final AtomicInteger failedChunks = new AtomicInteger();
+
+        private final AtomicLong affectedUsers = new AtomicLong();
+
+        private final AtomicReference<String> error = new AtomicReference<>();
+
+        private final AtomicReference<Instant> finishedAt = new AtomicReference<>();
+
+        Job(String id, PermissionJobRequest request, int totalChunks) {
+            this.id = id;
+            this.request = request;
+            this.totalChunks = totalChunks;
+        }
+
+        void finish() {
+            finishedAt.set(Instant.now());
+        }
+
+        PermissionJobStatus toStatus() {
+            Instant finished = finishedAt.get();
+            State state = finished == null ? State.RUNNING
+                    : failedChunks.get() > 0 ? State.FAILED : State.COMPLETED;
+            return new PermissionJobStatus(id, request.getOperation(), request.getType(),
+                    request.getPermissionId(), state, totalChunks, completedChunks.get(), failedChunks.get(),
+                    affectedUsers.get(), error.get(), startedAt, finished);
+        }
+    }
+}
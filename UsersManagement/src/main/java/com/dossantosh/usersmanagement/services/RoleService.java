@@ -8,33 +8,45 @@ import java.util.List;
 import org.springframework.stereotype.Service;
 
 import com.dossantosh.usersmanagement.models.Roles;
-import com.dossantosh.usersmanagement.repositories.RoleRepository;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 
+/**
+ * Read access to the roles, served from the {@link PermissionCatalog}.
+ */
 @RequiredArgsConstructor
 @Service
 public class RoleService {
-    private final RoleRepository roleRepository;
+    private final PermissionCatalog permissionCatalog;
 
     public Roles findById(Long id) {
-        return roleRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Rol con ID " + id + " no encontrado"));
+        Roles role = permissionCatalog.getRole(id);
+        if (role == null) {
+            throw new EntityNotFoundException("Rol con ID " + id + " no encontrado");
+        }
+        return role;
     }
 
     public List<Roles> findAllById(List<Long> listaId) {
-        return new ArrayList<>(roleRepository.findAllById(listaId));
+        List<Roles> roles = new ArrayList<>();
+        for (Long id : listaId) {
+            Roles role = permissionCatalog.getRole(id);
+            if (role != null) {
+                roles.add(role);
+            }
+        }
+        return roles;
 
     }
 
     public List<Roles> findAll() {
-        return new ArrayList<>(roleRepository.findAll());
+        return new ArrayList<>(permissionCatalog.getRoles());
 
     }
 
     public boolean existById(Long id) {
-        return roleRepository.existsById(id);
+        return permissionCatalog.getRole(id) != null;
     }
 
-}
\ No newline at end of file
+}
@@ -12,31 +12,49 @@ import com.dossantosh.usersmanagement.repositories.SubmoduleRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 
+/**
+ * Access to the submodules. Reads are served from the
+ * {@link PermissionCatalog}, which is refreshed after every save.
+ */
 @RequiredArgsConstructor
 @Service
 public class SubmoduleService {
 
     private final SubmoduleRepository submoduleRepository;
 
+    private final PermissionCatalog permissionCatalog;
+
     public Submodules findById(Long id) {
-        return submoduleRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Módulo con ID " + id + " no encontrado"));
+        Submodules submodule = permissionCatalog.getSubmodule(id);
+        if (submodule == null) {
+            throw new EntityNotFoundException("Módulo con ID " + id + " no encontrado");
+        }
+        return submodule;
     }
 
     public List<Submodules> findAllById(List<Long> listaId) {
-        return new ArrayList<>(submoduleRepository.findAllById(listaId));
+        List<Submodules> submodules = new ArrayList<>();
+        for (Long id : listaId) {
+            Submodules submodule = permissionCatalog.getSubmodule(id);
+            if (submodule != null) {
+                submodules.add(submodule);
+            }
+        }
+        return submodules;
     }
 
     public List<Submodules> findAll() {
-        return new ArrayList<>(submoduleRepository.findAll());
+        return new ArrayList<>(permissionCatalog.getSubmodules());
     }
 
     public Submodules save(Submodules submodule) {
-        return submoduleRepository.save(submodule);
+        Submodules saved = submoduleRepository.save(submodule);
+        permissionCatalog.refresh();
+        return saved;
     }
 
     public boolean existById(Long id) {
-        return submoduleRepository.existsById(id);
+        return permissionCatalog.getSubmodule(id) != null;
     }
 
 }
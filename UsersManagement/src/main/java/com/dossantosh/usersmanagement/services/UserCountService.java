@@ -0,0 +1,123 @@
+package com.dossantosh.usersmanagement.services;
+
+import java.time.Duration;
+import java.util.Locale;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import com.dossantosh.usersmanagement.common.global.cache.CacheLoads;
+import com.dossantosh.usersmanagement.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Service providing the total number of users behind a user listing without
+ * counting the whole table on every page.
+ * <p>
+ * An unfiltered listing gets an estimate from the planner statistics. A
+ * filtered one gets an exact count, cached for a short time per filter
+ * combination and dropped whenever a user is written. The count is run by the
+ * calling thread outside the lock of the cache (see {@link CacheLoads}).
+ * </p>
+ */
+@Service
+@ConfigurationProperties(prefix = "users.count")
+@RequiredArgsConstructor
+public class UserCountService {
+
+    private final UserRepository userRepository;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Maximum number of filter combinations whose count is kept.
+     */
+    @Getter
+    @Setter
+    private long maximumSize = 1_000;
+
+    /**
+     * Time an exact count is reused after being computed.
+     */
+    @Getter
+    @Setter
+    private Duration ttl = Duration.ofSeconds(30);
+
+    private AsyncCache<CountKey, Long> counts;
+
+    /**
+     * Builds the cache and binds its statistics to the meter registry once the
+     * properties are set.
+     */
+    @PostConstruct
+    public void init() {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "userCount");
+    }
+
+    /**
+     * Returns the number of users matching the filters.
+     * 
+     * @param id       Filter by user ID.
+     * @param username Filter by username prefix.
+     * @param email    Filter by email prefix.
+     * @return The total, estimated when no filter is given.
+     */
+    public Total countUsers(Long id, String username, String email) {
+        CountKey key = new CountKey(id, normalize(username), normalize(email));
+
+        if (key.isUnfiltered()) {
+            Long estimate = userRepository.estimateUsers();
+            if (estimate != null) {
+                return new Total(estimate, false);
+            }
+        }
+
+        long count = CacheLoads.getOrLoad(counts, key,
+                k -> userRepository.countUsers(k.id(), k.username(), k.email()));
+        return new Total(count, true);
+    }
+
+    /**
+     * Drops every cached count, after a user has been created, modified or
+     * deleted.
+     */
+    public void evictAll() {
+        counts.synchronous().invalidateAll();
+    }
+
+    private static String normalize(String prefix) {
+        return prefix == null || prefix.isEmpty() ? null : prefix.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Filter combination a count is cached for.
+     */
+    private record CountKey(Long id, String username, String email) {
+
+        boolean isUnfiltered() {
+            return id == null && username == null && email == null;
+        }
+    }
+
+    /**
+     * Number of users behind a listing.
+     *
+     * @param value the number of users
+     * @param exact true if the number was counted, false if it is an estimate
+     */
+    public record Total(long value, boolean exact) {
+    }
+}
@@ -0,0 +1,214 @@
+package com.dossantosh.usersmanagement.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dossantosh.usersmanagement.projections.UserDTO;
+import com.dossantosh.usersmanagement.repositories.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Service writing the users matching a filter to a stream, as NDJSON or CSV.
+ * <p>
+ * Users are read through a database cursor one batch at a time and written as
+ * they arrive, so an export of the whole table runs in constant memory.
+ * </p>
+ */
+@Service
+@ConfigurationProperties(prefix = "users.export")
+@RequiredArgsConstructor
+public class UserExportService {
+
+    private static final String CSV_HEADER = "id,username,email,enabled,isAdmin";
+
+    private final UserRepository userRepository;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Number of rows fetched from the database cursor at a time, which bounds the
+     * rows held in memory during an export.
+     */
+    @Getter
+    @Setter
+    private int fetchSize = 1_000;
+
+    /**
+     * Time an export may take before the container ends its response.
+     */
+    @Getter
+    @Setter
+    private Duration timeout = Duration.ofMinutes(30);
+
+    /**
+     * Writes every user matching the filters to the stream, in id order. The
+     * stream is flushed after each batch of rows but not closed.
+     *
+     * @param id       Filter by user ID.
+     * @param username Filter by username prefix.
+     * @param email    Filter by email prefix.
+     * @param format   The output format.
+     * @param out      The stream the users are written to.
+     * @throws IOException if the stream cannot be written, e.g. because the
+     *                     client disconnected
+     */
+    @Transactional(readOnly = true)
+    public void exportUsers(Long id, String username, String email, Format format, OutputStream out)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+
+        int[] written = { 0 };
+        try {
+            rowWriter.start();
+            userRepository.streamUsers(id, lower(username), lower(email), fetchSize, user -> {
+                try {
+                    rowWriter.write(user);
+                    if (++written[0] % fetchSize == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String lower(String prefix) {
+        return prefix != null ? prefix.toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * Writes one user per row of the output.
+     */
+    private interface RowWriter {
+
+        void start() throws IOException;
+
+        void write(UserDTO user) throws IOException;
+    }
+
+    /**
+     * One JSON object per line.
+     */
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void start() throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(writer)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            // Rows are separated by the newline written after each of them
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(UserDTO user) throws IOException {
+            objectMapper.writeValue(generator, user);
+            generator.writeRaw('\n');
+            // Hand the row over to the buffered writer, which is flushed per batch
+            generator.flush();
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row.
+     */
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void start() throws IOException {
+            writer.write(CSV_HEADER);
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(UserDTO user) throws IOException {
+            writer.write(String.valueOf(user.getId()));
+            writer.write(',');
+            writeField(user.getUsername());
+            writer.write(',');
+            writeField(user.getEmail());
+            writer.write(',');
+            writeField(user.getEnabled() != null ? user.getEnabled().toString() : null);
+            writer.write(',');
+            writeField(user.getIsAdmin() != null ? user.getIsAdmin().toString() : null);
+            writer.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    /**
+     * Output format of an export.
+     */
+    public enum Format {
+
+        /**
+         * Newline-delimited JSON, one user object per line.
+         */
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+
+        /**
+         * Comma-separated values with a header row.
+         */
+        CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+        @Getter
+        private final MediaType mediaType;
+
+        @Getter
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+    }
+}
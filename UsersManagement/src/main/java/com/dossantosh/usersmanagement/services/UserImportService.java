@@ -0,0 +1,558 @@
+package com.dossantosh.usersmanagement.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongFunction;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.dossantosh.usersmanagement.common.global.errors.custom.BusinessException;
+import com.dossantosh.usersmanagement.common.security.custom.auth.PermissionSet;
+import com.dossantosh.usersmanagement.common.security.hashing.PasswordHashes;
+import com.dossantosh.usersmanagement.common.security.hashing.PasswordHashingExecutor;
+import com.dossantosh.usersmanagement.projections.UserImportDTO;
+import com.dossantosh.usersmanagement.projections.UserImportResult;
+import com.dossantosh.usersmanagement.repositories.UserJdbcRepository;
+import com.dossantosh.usersmanagement.repositories.UserJdbcRepository.NewUser;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service importing users in bulk from a JSON array or a CSV stream.
+ * <p>
+ * The input is read one user at a time and buffered in chunks. Each chunk is
+ * validated against the {@link PermissionCatalog}, its plain passwords are
+ * hashed in parallel on a dedicated pool, and its users are inserted with their
+ * link-table rows and permission masks in one transaction through
+ * {@link UserJdbcRepository}. A rejected user is
+ * reported with its row number and does not stop the import; a chunk the
+ * database refuses is retried in smaller slices to isolate the failing rows.
+ * </p>
+ * <p>
+ * BCrypt bounds the throughput of rows with a plain password to about ten per
+ * second and hashing thread at the default cost; rows with a {@code passwordHash} skip
+ * hashing and are limited by the database writes only.
+ * </p>
+ */
+@Slf4j
+@Service
+@ConfigurationProperties(prefix = "users.import")
+@RequiredArgsConstructor
+public class UserImportService {
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+$");
+
+    private static final Set<Long> DEFAULT_PERMISSIONS = Set.of(1L);
+
+    private final UserJdbcRepository userJdbcRepository;
+
+    private final PermissionCatalog permissionCatalog;
+
+    private final UserCountService userCountService;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Number of users validated, hashed and inserted together in one transaction.
+     */
+    @Getter
+    @Setter
+    private int chunkSize = 5_000;
+
+    /**
+     * Number of threads hashing plain passwords, defaults to half the cores so
+     * that an import leaves the other half to the login verifications of
+     * {@link PasswordHashingExecutor}.
+     */
+    @Getter
+    @Setter
+    private int hashingThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * Maximum number of rejected rows listed in the result of an import.
+     */
+    @Getter
+    @Setter
+    private int maxReportedErrors = 1_000;
+
+    private ForkJoinPool hashingPool;
+
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Builds the hashing pool and binds its meters once the properties are set.
+     */
+    @PostConstruct
+    public void init() {
+        this.hashingPool = new ForkJoinPool(hashingThreads, pool -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("user-import-hashing-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        new ExecutorServiceMetrics(hashingPool, "users.import.hashing", List.of()).bindTo(meterRegistry);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Stops the hashing pool on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    /**
+     * Imports the users of a JSON array of {@link UserImportDTO} objects.
+     *
+     * @param in The JSON input, read up to the end of the array.
+     * @return The number of users imported and the rejected rows.
+     * @throws IOException       if the input cannot be read.
+     * @throws BusinessException if the input is not a JSON array.
+     */
+    public UserImportResult importJson(InputStream in) throws IOException {
+        Import importRun = new Import();
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BusinessException("Expected a JSON array of users");
+            }
+
+            long row = 0;
+            while (true) {
+                long current = row + 1;
+                JsonNode node;
+                try {
+                    JsonToken token = parser.nextToken();
+                    if (token == null || token == JsonToken.END_ARRAY) {
+                        break;
+                    }
+                    row = current;
+                    node = parser.readValueAsTree();
+                } catch (JsonParseException e) {
+                    // The rest of the input cannot be located after a syntax error
+                    importRun.reject(current, null, "Malformed JSON: " + e.getOriginalMessage());
+                    break;
+                }
+
+                try {
+                    importRun.add(row, objectMapper.treeToValue(node, UserImportDTO.class));
+                } catch (JsonProcessingException e) {
+                    importRun.reject(row, node.path("username").asText(null),
+                            "Invalid user: " + e.getOriginalMessage());
+                }
+            }
+        }
+        return importRun.finish();
+    }
+
+    /**
+     * Imports the users of a CSV stream. The first record is a header naming the
+     * columns among {@code username}, {@code email}, {@code password},
+     * {@code passwordHash}, {@code enabled}, {@code isAdmin}, {@code roles},
+     * {@code modules} and {@code submodules}; permission ids are separated by
+     * {@code ;}.
+     *
+     * @param in The UTF-8 CSV input.
+     * @return The number of users imported and the rejected rows.
+     * @throws IOException       if the input cannot be read.
+     * @throws BusinessException if the header lacks the username or email column.
+     */
+    public UserImportResult importCsv(InputStream in) throws IOException {
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+
+        List<String> header = reader.next();
+        Map<String, Integer> columns = new HashMap<>();
+        if (header != null) {
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+        }
+        if (!columns.containsKey("username") || !columns.containsKey("email")) {
+            throw new BusinessException("The CSV header must name the username and email columns");
+        }
+
+        Import importRun = new Import();
+        long row = 0;
+        List<String> record;
+        while ((record = reader.next()) != null) {
+            if (record.size() == 1 && record.get(0).isEmpty()) {
+                continue; // Blank line
+            }
+            row++;
+
+            UserImportDTO user = new UserImportDTO();
+            user.setUsername(field(record, columns, "username"));
+            try {
+                user.setEmail(field(record, columns, "email"));
+                user.setPassword(field(record, columns, "password"));
+                user.setPasswordHash(field(record, columns, "passwordhash"));
+                user.setEnabled(parseBoolean(field(record, columns, "enabled")));
+                user.setIsAdmin(parseBoolean(field(record, columns, "isadmin")));
+                user.setRoles(parseIds(field(record, columns, "roles")));
+                user.setModules(parseIds(field(record, columns, "modules")));
+                user.setSubmodules(parseIds(field(record, columns, "submodules")));
+            } catch (IllegalArgumentException e) {
+                importRun.reject(row, user.getUsername(), "Invalid user: " + e.getMessage());
+                continue;
+            }
+            importRun.add(row, user);
+        }
+        return importRun.finish();
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size() || record.get(index).isEmpty()) {
+            return null;
+        }
+        return record.get(index);
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (value.equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw new IllegalArgumentException("not a boolean: " + value);
+    }
+
+    private static Set<Long> parseIds(String value) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (value == null) {
+            return ids;
+        }
+        for (String id : value.split(";")) {
+            if (!id.isBlank()) {
+                try {
+                    ids.add(Long.parseLong(id.trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("not an id: " + id.trim());
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * State of one import: the pending chunk, the usernames and emails already
+     * read, and the result so far.
+     */
+    private final class Import {
+
+        private final UserImportResult result = new UserImportResult();
+
+        private final List<PendingUser> chunk = new ArrayList<>(chunkSize);
+
+        private final Set<String> usernames = new HashSet<>();
+
+        private final Set<String> emails = new HashSet<>();
+
+        private long lastRow;
+
+        void add(long row, UserImportDTO user) {
+            lastRow = Math.max(lastRow, row);
+
+            String error = validate(user);
+            if (error != null) {
+                reject(row, user.getUsername(), error);
+                return;
+            }
+            if (!usernames.add(user.getUsername())) {
+                reject(row, user.getUsername(), "Duplicate username in the import");
+                return;
+            }
+            if (!emails.add(user.getEmail())) {
+                reject(row, user.getUsername(), "Duplicate email in the import");
+                return;
+            }
+
+            chunk.add(new PendingUser(row, user));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, String username, String message) {
+            lastRow = Math.max(lastRow, row);
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < maxReportedErrors) {
+                result.getErrors().add(new UserImportResult.RowError(row, username, message));
+            } else {
+                result.setErrorsTruncated(true);
+            }
+        }
+
+        UserImportResult finish() {
+            flush();
+            result.setReceived(lastRow);
+            // Rows rejected by the database are only known once their chunk is written
+            result.getErrors().sort(Comparator.comparingLong(UserImportResult.RowError::row));
+            if (result.getImported() > 0) {
+                userCountService.evictAll();
+            }
+            return result;
+        }
+
+        private String validate(UserImportDTO user) {
+            String username = user.getUsername();
+            if (username == null || username.isBlank()) {
+                return "Username is required";
+            }
+            if (username.length() > 40) {
+                return "Username is longer than 40 characters";
+            }
+
+            String email = user.getEmail();
+            if (email == null || !EMAIL.matcher(email).matches()) {
+                return "Email is missing or invalid";
+            }
+            if (email.length() > 50) {
+                return "Email is longer than 50 characters";
+            }
+
+            if (user.getPasswordHash() != null) {
+                if (!PasswordHashes.isBCryptHash(user.getPasswordHash())) {
+                    return "Password hash is not a BCrypt hash";
+                }
+            } else if (user.getPassword() == null || user.getPassword().isEmpty()) {
+                return "Password or password hash is required";
+            } else if (user.getPassword().getBytes(StandardCharsets.UTF_8).length > 72) {
+                return "Password is longer than 72 bytes";
+            }
+
+            String unknown = unknownId("role", user.getRoles(), permissionCatalog::getRole);
+            if (unknown == null) {
+                unknown = unknownId("module", user.getModules(), permissionCatalog::getModule);
+            }
+            if (unknown == null) {
+                unknown = unknownId("submodule", user.getSubmodules(), permissionCatalog::getSubmodule);
+            }
+            return unknown;
+        }
+
+        private String unknownId(String kind, Set<Long> ids, LongFunction<?> lookup) {
+            if (ids == null) {
+                return null;
+            }
+            for (Long id : ids) {
+                if (id == null || lookup.apply(id) == null) {
+                    return "Unknown " + kind + " " + id;
+                }
+            }
+            return null;
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+
+            // Plain passwords are hashed in parallel, outside the transaction
+            String[] hashes = new String[chunk.size()];
+            hashingPool.submit(() -> IntStream.range(0, hashes.length).parallel().forEach(i -> {
+                UserImportDTO user = chunk.get(i).user();
+                hashes[i] = user.getPasswordHash() != null
+                        ? user.getPasswordHash()
+                        : passwordEncoder.encode(user.getPassword());
+            })).join();
+
+            List<NewUser> newUsers = new ArrayList<>(chunk.size());
+            for (int i = 0; i < hashes.length; i++) {
+                UserImportDTO user = chunk.get(i).user();
+                newUsers.add(new NewUser(
+                        user.getUsername(),
+                        user.getEmail(),
+                        hashes[i],
+                        !Boolean.FALSE.equals(user.getEnabled()),
+                        Boolean.TRUE.equals(user.getIsAdmin()),
+                        permissions(user.getRoles()),
+                        permissions(user.getModules()),
+                        permissions(user.getSubmodules())));
+            }
+
+            insert(chunk, newUsers);
+            chunk.clear();
+        }
+
+        /**
+         * Inserts the users in one transaction. If the database rejects the data
+         * of a row, the users are inserted again in two halves, down to single
+         * users, so that only the rows that cannot be saved are rejected. Any
+         * other failure, such as a lost connection, aborts the import.
+         */
+        private void insert(List<PendingUser> pendingUsers, List<NewUser> newUsers) {
+            try {
+                Map<String, Long> ids = transactionTemplate.execute(status -> userJdbcRepository.insertUsers(newUsers));
+                for (PendingUser pending : pendingUsers) {
+                    if (ids == null || !ids.containsKey(pending.user().getUsername())) {
+                        reject(pending.row(), pending.user().getUsername(), "Username or email already exists");
+                    }
+                }
+                result.setImported(result.getImported() + (ids != null ? ids.size() : 0));
+            } catch (DataAccessException e) {
+                if (!isRowError(e)) {
+                    throw e;
+                }
+                if (pendingUsers.size() == 1) {
+                    PendingUser pending = pendingUsers.get(0);
+                    log.warn("Could not import the user of row {}", pending.row(), e);
+                    reject(pending.row(), pending.user().getUsername(), "The user could not be saved");
+                    return;
+                }
+                log.debug("Could not import {} users, retrying in halves", pendingUsers.size(), e);
+                int half = pendingUsers.size() / 2;
+                insert(pendingUsers.subList(0, half), newUsers.subList(0, half));
+                insert(pendingUsers.subList(half, pendingUsers.size()), newUsers.subList(half, newUsers.size()));
+            }
+        }
+
+        /**
+         * Whether the failure comes from the data of a row: an integrity
+         * violation, or SQLState class 22 (data exception) or 23 (integrity
+         * constraint violation). Connection and transient failures are not.
+         */
+        private static boolean isRowError(DataAccessException e) {
+            if (e instanceof DataIntegrityViolationException) {
+                return true;
+            }
+            if (e.getMostSpecificCause() instanceof SQLException sqlException) {
+                String sqlState = sqlException.getSQLState();
+                return sqlState != null && (sqlState.startsWith("22") || sqlState.startsWith("23"));
+            }
+            return false;
+        }
+
+        private PermissionSet permissions(Set<Long> ids) {
+            return PermissionSet.of(ids == null || ids.isEmpty() ? DEFAULT_PERMISSIONS : ids);
+        }
+    }
+
+    /**
+     * A valid user waiting for its chunk to be written.
+     */
+    private record PendingUser(long row, UserImportDTO user) {
+    }
+
+    /**
+     * Minimal RFC 4180 reader: comma-separated fields, optionally quoted, with
+     * doubled quotes inside quoted fields and CRLF or LF line endings.
+     */
+    static final class CsvReader {
+
+        private final Reader reader;
+
+        private int next = -2;
+
+        CsvReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Reads the next record.
+         *
+         * @return the fields of the record, or null at the end of the input
+         */
+        List<String> next() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        break; // Unterminated quote, keep what was read
+                    }
+                    if (c == '"') {
+                        int following = read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = following;
+                            continue;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r') {
+                        int following = read();
+                        if (following != '\n') {
+                            next = following;
+                        }
+                    }
+                    break;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private int read() throws IOException {
+            if (next != -2) {
+                int c = next;
+                next = -2;
+                return c;
+            }
+            return reader.read();
+        }
+    }
+}
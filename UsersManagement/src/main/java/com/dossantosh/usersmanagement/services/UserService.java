@@ -1,30 +1,61 @@
 package com.dossantosh.usersmanagement.services;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.TreeSet;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.dossantosh.usersmanagement.common.global.errors.custom.BusinessException;
 import com.dossantosh.usersmanagement.common.global.page.Direction;
+import com.dossantosh.usersmanagement.common.global.page.KeysetCursor;
 import com.dossantosh.usersmanagement.common.global.page.KeysetPage;
+import com.dossantosh.usersmanagement.common.global.page.KeysetRow;
+import com.dossantosh.usersmanagement.common.global.page.UserSort;
+import com.dossantosh.usersmanagement.common.security.custom.auth.PermissionSet;
 import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuth;
+import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuthMaskProjection;
 import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuthProjection;
+import com.dossantosh.usersmanagement.common.security.custom.auth.bus.UserAuthCache;
 import com.dossantosh.usersmanagement.common.security.custom.auth.bus.UserAuthDTO;
+import com.dossantosh.usersmanagement.common.security.hashing.PasswordHashes;
+import com.dossantosh.usersmanagement.common.security.jwt.JwtUtil;
+import com.dossantosh.usersmanagement.common.security.jwt.TokenRevocationStore;
 import com.dossantosh.usersmanagement.models.Modules;
 import com.dossantosh.usersmanagement.models.Roles;
 import com.dossantosh.usersmanagement.models.Submodules;
 import com.dossantosh.usersmanagement.models.User;
+import com.dossantosh.usersmanagement.models.UserPermissions;
 import com.dossantosh.usersmanagement.projections.FullUserDTO;
 import com.dossantosh.usersmanagement.projections.UserDTO;
+import com.dossantosh.usersmanagement.projections.UserPatch;
+import com.dossantosh.usersmanagement.repositories.UserJdbcRepository;
+import com.dossantosh.usersmanagement.repositories.UserJdbcRepository.LinkTable;
+import com.dossantosh.usersmanagement.repositories.UserJdbcRepository.UserColumn;
+import com.dossantosh.usersmanagement.repositories.UserPermissionsRepository;
 import com.dossantosh.usersmanagement.repositories.UserRepository;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityNotFoundException;
 
 import lombok.RequiredArgsConstructor;
@@ -33,6 +64,12 @@ import lombok.RequiredArgsConstructor;
  * Service class that manages users, their roles, modules, and submodules.
  * Provides CRUD operations, paging, mapping between entities and DTOs,
  * and audit logging for user-related actions.
+ * Every write evicts the cached principal of the affected user and the cached
+ * listing totals, and disabling or deleting a user revokes the tokens already
+ * issued to it. The permission masks of {@code user_permissions} are written in
+ * the same transaction as the user.
+ * Keyset pages are measured by the {@code users.keyset.page.size} summary and
+ * counted by {@code users.keyset.pages}, tagged {@code has_more}.
  */
 @RequiredArgsConstructor
 @Service
@@ -40,11 +77,49 @@ public class UserService {
 
     private final UserRepository userRepository;
 
-    private final RoleService roleService;
+    private final UserJdbcRepository userJdbcRepository;
 
-    private final ModuleService moduleService;
+    private final UserPermissionsRepository userPermissionsRepository;
 
-    private final SubmoduleService submoduleService;
+    private final PermissionCatalog permissionCatalog;
+
+    private final UserAuthCache userAuthCache;
+
+    private final UserCountService userCountService;
+
+    private final TokenRevocationStore revocationStore;
+
+    private final JwtUtil jwtUtil;
+
+    // Resolved lazily: the security configuration defining it depends on this service
+    private final ObjectProvider<PasswordEncoder> passwordEncoder;
+
+    private final MeterRegistry meterRegistry;
+
+    private DistributionSummary keysetPageSize;
+
+    private Counter keysetPagesWithMore;
+
+    private Counter keysetPagesWithoutMore;
+
+    /**
+     * Registers the keyset paging meters.
+     */
+    @PostConstruct
+    public void init() {
+        this.keysetPageSize = DistributionSummary.builder("users.keyset.page.size")
+                .description("Users returned by a keyset page")
+                .register(meterRegistry);
+        this.keysetPagesWithMore = keysetPagesCounter(true);
+        this.keysetPagesWithoutMore = keysetPagesCounter(false);
+    }
+
+    private Counter keysetPagesCounter(boolean hasMore) {
+        return Counter.builder("users.keyset.pages")
+                .description("Keyset pages served, by whether more users follow in the requested direction")
+                .tag("has_more", Boolean.toString(hasMore))
+                .register(meterRegistry);
+    }
 
     /**
      * Retrieves all users from the repository.
@@ -79,6 +154,26 @@ public class UserService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
 
+    /**
+     * Loads the principal of a user by username for authentication.
+     * Reads the permission masks in a single lookup, and falls back to
+     * aggregating the link tables when the user has no usable masks.
+     * 
+     * @param username The username.
+     * @return UserAuth principal of the user.
+     * @throws UsernameNotFoundException if no user found with the given username.
+     */
+    public UserAuth loadUserAuth(String username) {
+        UserAuthMaskProjection projection = userRepository.findUserAuthMasksByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+
+        if (projection.getRolesMask() == null || projection.getModulesMask() == null
+                || projection.getSubmodulesMask() == null) {
+            return mapToUserAuth(findUserAuthByUsername(username));
+        }
+        return mapToUserAuth(projection);
+    }
+
     /**
      * Finds a user with full details by ID.
      * 
@@ -121,51 +216,63 @@ public class UserService {
      * @param id        Filter by user ID.
      * @param username  Filter by username.
      * @param email     Filter by email.
-     * @param lastId    The last ID seen in pagination.
+     * @param sort      Order of the users.
+     * @param cursor    The cursor of the last user seen in pagination, or null
+     *                  for the first page.
      * @param limit     Maximum number of users to return.
      * @param direction Pagination direction (NEXT or PREVIOUS).
      * @return A KeysetPage containing a list of UserDTO and pagination info.
+     * @throws BusinessException if the cursor was issued for another sort.
      */
-    public KeysetPage<UserDTO> findUsersKeyset(Long id, String username, String email, Long lastId, int limit,
-            Direction direction) {
+    public KeysetPage<UserDTO> findUsersKeyset(Long id, String username, String email, UserSort sort,
+            KeysetCursor cursor, int limit, Direction direction) {
+
+        if (cursor != null && cursor.sort() != sort) {
+            throw new BusinessException("The cursor was issued for sort " + cursor.sort());
+        }
+
         // Fetch one extra to detect if more elements exist
-        List<UserDTO> users = userRepository.findUsersKeyset(id, username, email, lastId, limit + 1,
-                direction.name());
+        List<KeysetRow<UserDTO>> rows = userRepository.findUsersKeyset(id, username, email, sort, cursor,
+                limit + 1, direction);
 
-        boolean hasMore = users.size() > limit;
+        boolean hasMore = rows.size() > limit;
         if (hasMore) {
-            users.remove(users.size() - 1); // Remove the extra one
+            rows.remove(rows.size() - 1); // Remove the extra one
         }
+        keysetPageSize.record(rows.size());
+        (hasMore ? keysetPagesWithMore : keysetPagesWithoutMore).increment();
 
         // Reverse the list if paging backwards to keep ascending order
         if (direction == Direction.PREVIOUS) {
-            Collections.reverse(users);
+            Collections.reverse(rows);
         }
 
-        Long newNextId = null;
-        Long newPreviousId = null;
-        boolean hasNext = false;
-        boolean hasPrevious = false;
+        List<UserDTO> users = new ArrayList<>(rows.size());
+        for (KeysetRow<UserDTO> row : rows) {
+            users.add(row.value());
+        }
+
+        KeysetPage<UserDTO> page = new KeysetPage<>();
+        page.setContent(users);
+
+        if (!rows.isEmpty()) {
+            KeysetRow<UserDTO> last = rows.get(rows.size() - 1); // Last visible user for next page
+            KeysetRow<UserDTO> first = rows.get(0); // First visible user for previous page
+
+            page.setNextId(last.value().getId());
+            page.setPreviousId(first.value().getId());
+            page.setNextCursor(new KeysetCursor(sort, last.key(), last.value().getId()).encode());
+            page.setPreviousCursor(new KeysetCursor(sort, first.key(), first.value().getId()).encode());
 
-        if (!users.isEmpty()) {
-            newNextId = users.get(users.size() - 1).getId(); // Last visible user id for next page
-            newPreviousId = users.get(0).getId(); // First visible user id for previous page
             if (direction == Direction.NEXT) {
-                hasNext = hasMore;
-                hasPrevious = lastId != null;
+                page.setHasNext(hasMore);
+                page.setHasPrevious(cursor != null);
             } else if (direction == Direction.PREVIOUS) {
-                hasNext = lastId != null; // Only has next if came from middle
-                hasPrevious = hasMore; // Only has previous if extra found in query
+                page.setHasNext(cursor != null); // Only has next if came from middle
+                page.setHasPrevious(hasMore); // Only has previous if extra found in query
             }
         }
 
-        KeysetPage<UserDTO> page = new KeysetPage<>();
-        page.setContent(users);
-        page.setNextId(newNextId);
-        page.setPreviousId(newPreviousId);
-        page.setHasNext(hasNext);
-        page.setHasPrevious(hasPrevious);
-
         return page;
     }
 
@@ -200,63 +307,309 @@ public class UserService {
     }
 
     /**
-     * Saves or updates a user entity.
+     * Saves or updates a user entity with its permission masks and evicts its
+     * cached principal.
      * 
      * @param user User entity to save.
      * @return The saved User entity.
      */
+    @Transactional
     public User saveUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userPermissionsRepository.save(UserPermissions.of(saved));
+        userAuthCache.evict(saved.getUsername());
+        userCountService.evictAll();
+        return saved;
     }
 
     /**
-     * Deletes a user by ID with audit logging.
+     * Deletes a user by ID with audit logging, revoking its tokens.
      * 
      * @param id User ID to delete.
      * @throws EntityNotFoundException if user does not exist.
      */
+    @Transactional
     public void deleteById(Long id) {
-        if (!existsById(id)) {
-            throw new EntityNotFoundException("User with ID " + id + " not found");
-        }
+        User user = findById(id);
 
+        userPermissionsRepository.deleteById(id);
         userRepository.deleteById(id);
+        userAuthCache.evict(user.getUsername());
+        userCountService.evictAll();
+        revocationStore.revokeAllForUser(user.getUsername());
+    }
+
+    /**
+     * Revokes every token issued to a user so far and evicts its cached
+     * principal.
+     * 
+     * @param id User ID whose tokens are revoked.
+     * @throws EntityNotFoundException if user does not exist.
+     */
+    public void revokeTokens(Long id) {
+        User user = findById(id);
+
+        revocationStore.revokeAllForUser(user.getUsername());
+        userAuthCache.evict(user.getUsername());
     }
 
     /**
      * Modifies an existing user with new data, preserving existing values if null
      * or empty.
+     * Only the fields that differ from the existing user are written, through
+     * {@link #patchUsers(List)}; the given entities are left untouched.
      * Performs audit logging after modification.
      * 
      * @param user         New user data.
      * @param existingUser Existing user to update.
      */
+    @Transactional
     public void modifyUser(User user, User existingUser) {
 
-        if (user.getId() == null) {
-            user.setId(existingUser.getId());
+        if (user.getRoles() == null || user.getModules() == null || user.getSubmodules() == null) {
+            return;
+        }
+
+        if (user.getRoles().isEmpty() || user.getModules().isEmpty() || user.getSubmodules().isEmpty()) {
+            return;
         }
 
-        if (user.getEmail() == null || user.getEmail().isBlank()) {
-            user.setEmail(existingUser.getEmail());
+        UserPatch patch = new UserPatch();
+        patch.setId(existingUser.getId());
+
+        if (user.getUsername() != null && !user.getUsername().equals(existingUser.getUsername())) {
+            patch.setUsername(user.getUsername());
         }
 
-        if (user.getEnabled() == null) {
-            user.setEnabled(existingUser.getEnabled());
+        if (user.getEmail() != null && !user.getEmail().isBlank()
+                && !user.getEmail().equals(existingUser.getEmail())) {
+            patch.setEmail(user.getEmail());
         }
 
-        if (user.getPassword() == null || user.getPassword().isEmpty()) {
-            user.setPassword(existingUser.getPassword());
+        if (user.getEnabled() != null && !user.getEnabled().equals(existingUser.getEnabled())) {
+            patch.setEnabled(user.getEnabled());
         }
 
-        if (user.getRoles() == null || user.getModules() == null || user.getSubmodules() == null) {
-            return;
+        if (user.getIsAdmin() != null && !user.getIsAdmin().equals(existingUser.getIsAdmin())) {
+            patch.setIsAdmin(user.getIsAdmin());
         }
 
-        if (user.getRoles().isEmpty() || user.getModules().isEmpty() || user.getSubmodules().isEmpty()) {
+        // The password of the entity is already hashed
+        if (user.getPassword() != null && !user.getPassword().isEmpty()
+                && !user.getPassword().equals(existingUser.getPassword())) {
+            patch.setPasswordHash(user.getPassword());
+        }
+
+        patch.setRoles(user.getRoles().stream().map(Roles::getId).collect(Collectors.toSet()));
+        patch.setModules(user.getModules().stream().map(Modules::getId).collect(Collectors.toSet()));
+        patch.setSubmodules(user.getSubmodules().stream().map(Submodules::getId).collect(Collectors.toSet()));
+
+        patchUsers(List.of(patch));
+    }
+
+    /**
+     * Applies partial updates to one or more users in a single transaction.
+     * Only the given columns are updated, in JDBC batches, and the role, module
+     * and submodule sets are applied as differences to the link tables, so a
+     * change costs writes in proportion to what changed. The permission masks of
+     * the users whose links changed are recomputed, their cached principals and
+     * the cached listing totals are evicted, and the tokens of the users who are
+     * disabled are revoked. When tokens carry the principal
+     * ({@code jwt.stateless-principal}), the tokens of the users whose
+     * permissions or administrator flag changed are revoked as well; otherwise
+     * the evicted principal already applies the change.
+     * 
+     * @param patches The updates, each with the ID of its user.
+     * @throws BusinessException       if a patch has no ID or invalid values, a
+     *                                 user is patched twice, a permission id does
+     *                                 not exist, or a username or email is taken.
+     * @throws EntityNotFoundException if a user does not exist.
+     */
+    @Transactional
+    public void patchUsers(List<UserPatch> patches) {
+
+        Map<Long, UserPatch> byId = new LinkedHashMap<>();
+        for (UserPatch patch : patches) {
+            if (patch.getId() == null) {
+                throw new BusinessException("Every patch needs a user ID");
+            }
+            if (byId.put(patch.getId(), patch) != null) {
+                throw new BusinessException("User " + patch.getId() + " is patched more than once");
+            }
+        }
+        if (byId.isEmpty()) {
             return;
         }
-        saveUser(user);
+
+        Map<Long, String> usernames = userJdbcRepository.findUsernames(byId.keySet());
+        if (usernames.size() < byId.size()) {
+            Set<Long> missing = new TreeSet<>(byId.keySet());
+            missing.removeAll(usernames.keySet());
+            throw new EntityNotFoundException("Users not found: " + missing);
+        }
+
+        // Validate every permission id of every patch in one pass
+        Set<Long> rolesId = new HashSet<>();
+        Set<Long> modulesId = new HashSet<>();
+        Set<Long> submodulesId = new HashSet<>();
+        Map<Long, Map<UserColumn, Object>> columns = new HashMap<>();
+        for (UserPatch patch : byId.values()) {
+            if (patch.getRoles() != null) {
+                rolesId.addAll(patch.getRoles());
+            }
+            if (patch.getModules() != null) {
+                modulesId.addAll(patch.getModules());
+            }
+            if (patch.getSubmodules() != null) {
+                submodulesId.addAll(patch.getSubmodules());
+            }
+            columns.put(patch.getId(), changedColumns(patch));
+        }
+        resolvePermissions(rolesId, modulesId, submodulesId);
+
+        boolean statelessPrincipal = jwtUtil.isStatelessPrincipal();
+        Set<Long> adminChanged = new HashSet<>();
+        List<Long> adminPatched = byId.values().stream()
+                .filter(patch -> patch.getIsAdmin() != null)
+                .map(UserPatch::getId)
+                .toList();
+        if (statelessPrincipal && !adminPatched.isEmpty()) {
+            userJdbcRepository.findAdminFlags(adminPatched).forEach((id, isAdmin) -> {
+                if (!byId.get(id).getIsAdmin().equals(isAdmin)) {
+                    adminChanged.add(id);
+                }
+            });
+        }
+
+        try {
+            userJdbcRepository.updateColumns(columns);
+        } catch (DuplicateKeyException e) {
+            throw new BusinessException("Username or email already exists");
+        }
+
+        Set<Long> relinked = new HashSet<>();
+        relinked.addAll(applyLinkChanges(LinkTable.ROLES, byId.values(), UserPatch::getRoles));
+        relinked.addAll(applyLinkChanges(LinkTable.MODULES, byId.values(), UserPatch::getModules));
+        relinked.addAll(applyLinkChanges(LinkTable.SUBMODULES, byId.values(), UserPatch::getSubmodules));
+        if (!relinked.isEmpty()) {
+            userPermissionsRepository.refreshByUserIds(relinked);
+        }
+
+        for (UserPatch patch : byId.values()) {
+            String username = usernames.get(patch.getId());
+            userAuthCache.evict(username);
+            // The username may have changed, so the new entry is stale as well
+            userAuthCache.evict(patch.getUsername());
+
+            if (Boolean.FALSE.equals(patch.getEnabled()) || statelessPrincipal
+                    && (relinked.contains(patch.getId()) || adminChanged.contains(patch.getId()))) {
+                revocationStore.revokeAllForUser(username);
+            }
+        }
+        userCountService.evictAll();
+    }
+
+    /**
+     * Returns the columns set by a patch, with the plain password hashed.
+     * 
+     * @throws BusinessException if a value is invalid.
+     */
+    private Map<UserColumn, Object> changedColumns(UserPatch patch) {
+        Map<UserColumn, Object> columns = new EnumMap<>(UserColumn.class);
+
+        if (patch.getUsername() != null) {
+            if (patch.getUsername().isBlank() || patch.getUsername().length() > 40) {
+                throw new BusinessException("Username must have between 1 and 40 characters");
+            }
+            columns.put(UserColumn.USERNAME, patch.getUsername());
+        }
+
+        if (patch.getEmail() != null) {
+            if (patch.getEmail().isBlank() || patch.getEmail().length() > 50) {
+                throw new BusinessException("Email must have between 1 and 50 characters");
+            }
+            columns.put(UserColumn.EMAIL, patch.getEmail());
+        }
+
+        if (patch.getPassword() != null && patch.getPasswordHash() != null) {
+            throw new BusinessException("Give either a password or a password hash, not both");
+        }
+        if (patch.getPasswordHash() != null) {
+            if (!PasswordHashes.isBCryptHash(patch.getPasswordHash())) {
+                throw new BusinessException("Password hash is not a BCrypt hash");
+            }
+            columns.put(UserColumn.PASSWORD, patch.getPasswordHash());
+        }
+        if (patch.getPassword() != null) {
+            if (patch.getPassword().isEmpty()
+                    || patch.getPassword().getBytes(StandardCharsets.UTF_8).length > 72) {
+                throw new BusinessException("Password must have between 1 and 72 bytes");
+            }
+            columns.put(UserColumn.PASSWORD, passwordEncoder.getObject().encode(patch.getPassword()));
+        }
+
+        if (patch.getEnabled() != null) {
+            columns.put(UserColumn.ENABLED, patch.getEnabled());
+        }
+
+        if (patch.getIsAdmin() != null) {
+            columns.put(UserColumn.IS_ADMIN, patch.getIsAdmin());
+        }
+
+        return columns;
+    }
+
+    /**
+     * Replaces the links of one table by the sets of the patches that give one,
+     * adding and removing only the ids that differ.
+     * 
+     * @return the IDs of the users whose links changed.
+     */
+    private Set<Long> applyLinkChanges(LinkTable table, Collection<UserPatch> patches,
+            Function<UserPatch, Set<Long>> target) {
+
+        List<Long> patched = new ArrayList<>();
+        for (UserPatch patch : patches) {
+            if (target.apply(patch) != null) {
+                patched.add(patch.getId());
+            }
+        }
+        if (patched.isEmpty()) {
+            return Set.of();
+        }
+
+        Map<Long, Set<Long>> current = userJdbcRepository.findLinks(table, patched);
+
+        Set<Long> changed = new HashSet<>();
+        List<Long> addUsers = new ArrayList<>();
+        List<Long> addIds = new ArrayList<>();
+        List<Long> removeUsers = new ArrayList<>();
+        List<Long> removeIds = new ArrayList<>();
+        for (UserPatch patch : patches) {
+            Set<Long> wanted = target.apply(patch);
+            if (wanted == null) {
+                continue;
+            }
+            Set<Long> existing = current.getOrDefault(patch.getId(), Set.of());
+            for (Long id : wanted) {
+                if (!existing.contains(id)) {
+                    addUsers.add(patch.getId());
+                    addIds.add(id);
+                    changed.add(patch.getId());
+                }
+            }
+            for (Long id : existing) {
+                if (!wanted.contains(id)) {
+                    removeUsers.add(patch.getId());
+                    removeIds.add(id);
+                    changed.add(patch.getId());
+                }
+            }
+        }
+
+        userJdbcRepository.removeLinks(table, removeUsers, removeIds);
+        userJdbcRepository.addLinks(table, addUsers, addIds);
+        return changed;
     }
 
     /**
@@ -266,19 +619,78 @@ public class UserService {
      * Performs audit logging after creation.
      * 
      * @param user User entity to create.
+     * @throws BusinessException if a permission id does not exist.
      */
+    @Transactional
     public void createUser(User user) {
+        createUsers(List.of(user));
+    }
+
+    /**
+     * Creates several new users at once, each with the roles, modules, and
+     * submodules of {@link #createUser(User)}.
+     * The permission ids of all the users are resolved together and validated in
+     * a single pass, so nothing is saved if any of them does not exist.
+     * 
+     * @param users User entities to create.
+     * @throws BusinessException listing every permission id that does not exist.
+     */
+    @Transactional
+    public void createUsers(List<User> users) {
+
+        List<PermissionIds> idsPerUser = new ArrayList<>(users.size());
+        Set<Long> rolesId = new HashSet<>();
+        Set<Long> modulesId = new HashSet<>();
+        Set<Long> submodulesId = new HashSet<>();
+
+        for (User user : users) {
+            PermissionIds ids = defaultPermissionIds(user.getUsername());
+            idsPerUser.add(ids);
+            rolesId.addAll(ids.roles());
+            modulesId.addAll(ids.modules());
+            submodulesId.addAll(ids.submodules());
+        }
+
+        ResolvedPermissions resolved = resolvePermissions(rolesId, modulesId, submodulesId);
 
-        Set<Roles> roles = new HashSet<>();
-        Set<Modules> modules = new HashSet<>();
-        Set<Submodules> submodules = new HashSet<>();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            PermissionIds ids = idsPerUser.get(i);
+
+            Set<Roles> roles = new HashSet<>();
+            Set<Modules> modules = new HashSet<>();
+            Set<Submodules> submodules = new HashSet<>();
+            ids.roles().forEach(id -> roles.add(resolved.roles().get(id)));
+            ids.modules().forEach(id -> modules.add(resolved.modules().get(id)));
+            ids.submodules().forEach(id -> submodules.add(resolved.submodules().get(id)));
+
+            user.setEnabled(true);
+            user.setRoles(roles);
+            user.setModules(modules);
+            user.setSubmodules(submodules);
+        }
+
+        List<User> saved = userRepository.saveAll(users);
+        List<UserPermissions> permissions = new ArrayList<>(saved.size());
+        for (User user : saved) {
+            permissions.add(UserPermissions.of(user));
+        }
+        userPermissionsRepository.saveAll(permissions);
+        userCountService.evictAll();
+    }
+
+    /**
+     * Returns the role, module and submodule ids given to a new user: the
+     * defaults (id 1) plus those of the special users.
+     */
+    private static PermissionIds defaultPermissionIds(String username) {
 
         Set<Long> rolesId = new HashSet<>();
         Set<Long> modulesId = new HashSet<>();
         Set<Long> submodulesId = new HashSet<>();
 
         // Assign roles/modules/submodules based on username for special users
-        if (user.getUsername().equals("sevas")) {
+        if ("sevas".equals(username)) {
 
             rolesId.add(2L);
 
@@ -292,7 +704,7 @@ public class UserService {
             submodulesId.add(6L);
         }
 
-        if (user.getUsername().equals("dossantosh")) {
+        if ("dossantosh".equals(username)) {
 
             modulesId.add(2L);
             modulesId.add(3L);
@@ -303,7 +715,7 @@ public class UserService {
             submodulesId.add(6L);
         }
 
-        if (user.getUsername().equals("userprueba")) {
+        if ("userprueba".equals(username)) {
             submodulesId.add(5L);
         }
 
@@ -312,54 +724,46 @@ public class UserService {
         modulesId.add(1L);
         submodulesId.add(1L);
 
-        // Resolve roles by IDs
-        Roles role = null;
-        for (Long rol : rolesId) {
-            if (roleService.existById(rol)) {
-                role = roleService.findById(rol);
-                roles.add(role);
-            }
-        }
-        // Resolve modules by IDs
-        Modules module = null;
-        for (Long moduleId : modulesId) {
-            if (moduleService.existById(moduleId)) {
-                module = moduleService.findById(moduleId);
-                modules.add(module);
-            }
-        }
-        // Resolve submodules by IDs
-        Submodules submodule = null;
-        for (Long submoduleId : submodulesId) {
-            if (submoduleService.existById(submoduleId)) {
-                submodule = submoduleService.findById(submoduleId);
-                submodules.add(submodule);
-            }
-        }
+        return new PermissionIds(rolesId, modulesId, submodulesId);
+    }
 
-        if (roles.isEmpty() || modules.isEmpty() || submodules.isEmpty()) {
-            return;
-        }
+    /**
+     * Resolves role, module and submodule ids to their entities from the
+     * permission catalog. Ids missing from the catalog may have been created
+     * since it was loaded, so it is reloaded once (one query per type) before
+     * they are reported.
+     * 
+     * @throws BusinessException listing every id that does not exist.
+     */
+    private ResolvedPermissions resolvePermissions(Set<Long> rolesId, Set<Long> modulesId,
+            Set<Long> submodulesId) {
 
-        user.setEnabled(true);
-        user.setRoles(roles);
-        user.setModules(modules);
-        user.setSubmodules(submodules);
+        ResolvedPermissions resolved = ResolvedPermissions.lookup(permissionCatalog, rolesId, modulesId,
+                submodulesId);
+        if (resolved.isComplete()) {
+            return resolved;
+        }
 
-        saveUser(user);
+        permissionCatalog.refresh();
+        resolved = ResolvedPermissions.lookup(permissionCatalog, rolesId, modulesId, submodulesId);
+        if (!resolved.isComplete()) {
+            throw new BusinessException("Unknown permission ids: " + resolved.describeMissing());
+        }
+        return resolved;
     }
 
     /**
-     * Loads lists of all roles, modules, and submodules to be used in forms.
+     * Loads lists of all roles, modules, and submodules to be used in forms,
+     * from the permission catalog.
      * 
      * @return Map with keys "allRoles", "allModules", and "allSubmodules" and their
      *         respective lists.
      */
     public Map<String, List<?>> permissionsList() {
         Map<String, List<?>> map = new HashMap<>();
-        map.put("allRoles", new ArrayList<>(roleService.findAll()));
-        map.put("allModules", new ArrayList<>(moduleService.findAll()));
-        map.put("allSubmodules", new ArrayList<>(submoduleService.findAll()));
+        map.put("allRoles", permissionCatalog.getRoles());
+        map.put("allModules", permissionCatalog.getModules());
+        map.put("allSubmodules", permissionCatalog.getSubmodules());
         return map;
     }
 
@@ -369,7 +773,7 @@ public class UserService {
      * @param projection UserAuthProjection containing data.
      * @return UserAuth object or null if input is null.
      */
-    public UserAuth mapToUserAuth(UserAuthProjection projection) {
+    public static UserAuth mapToUserAuth(UserAuthProjection projection) {
 
         if (projection == null) {
             return null;
@@ -381,15 +785,39 @@ public class UserService {
         userAuth.setEmail(projection.getEmail());
         userAuth.setPassword(projection.getPassword());
         userAuth.setEnabled(projection.getEnabled());
+        userAuth.setIsAdmin(projection.getIsAdmin());
+
+        userAuth.setRoles(PermissionSet.of(projection.getRoles()));
+        userAuth.setModules(PermissionSet.of(projection.getModules()));
+        userAuth.setSubmodules(PermissionSet.of(projection.getSubmodules()));
 
-        LinkedHashSet<Long> hashRoles = new LinkedHashSet<>(projection.getRoles());
-        userAuth.setRoles(hashRoles);
+        return userAuth;
+    }
+
+    /**
+     * Maps a UserAuthMaskProjection to a UserAuth object used for authentication.
+     * 
+     * @param projection UserAuthMaskProjection containing data, with every mask
+     *                   set.
+     * @return UserAuth object or null if input is null.
+     */
+    public static UserAuth mapToUserAuth(UserAuthMaskProjection projection) {
+
+        if (projection == null) {
+            return null;
+        }
 
-        LinkedHashSet<Long> hashModules = new LinkedHashSet<>(projection.getModules());
-        userAuth.setModules(hashModules);
+        UserAuth userAuth = new UserAuth();
+        userAuth.setId(projection.getId());
+        userAuth.setUsername(projection.getUsername());
+        userAuth.setEmail(projection.getEmail());
+        userAuth.setPassword(projection.getPassword());
+        userAuth.setEnabled(projection.getEnabled());
+        userAuth.setIsAdmin(projection.getIsAdmin());
 
-        LinkedHashSet<Long> hashSubmodules = new LinkedHashSet<>(projection.getSubmodules());
-        userAuth.setSubmodules(hashSubmodules);
+        userAuth.setRoles(PermissionSet.fromMask(projection.getRolesMask()));
+        userAuth.setModules(PermissionSet.fromMask(projection.getModulesMask()));
+        userAuth.setSubmodules(PermissionSet.fromMask(projection.getSubmodulesMask()));
 
         return userAuth;
     }
@@ -400,7 +828,7 @@ public class UserService {
      * @param userAuth The UserAuth object to map.
      * @return UserAuthDTO or null if the input is null.
      */
-    public UserAuthDTO mapToUserAuthDTO(UserAuth userAuth) {
+    public static UserAuthDTO mapToUserAuthDTO(UserAuth userAuth) {
         if (userAuth == null) {
             return null;
         }
@@ -425,7 +853,7 @@ public class UserService {
      * @param user User entity.
      * @return FullUserDTO or null if user is null.
      */
-    public FullUserDTO mapToFullUserDTO(User user) {
+    public static FullUserDTO mapToFullUserDTO(User user) {
 
         if (user == null) {
             return null;
@@ -446,4 +874,73 @@ public class UserService {
 
         return fullUserDTO;
     }
+
+    /**
+     * Role, module and submodule ids to assign to a user.
+     */
+    private record PermissionIds(Set<Long> roles, Set<Long> modules, Set<Long> submodules) {
+    }
+
+    /**
+     * Entities found for a set of permission ids, and the ids not found.
+     */
+    private record ResolvedPermissions(Map<Long, Roles> roles, Map<Long, Modules> modules,
+            Map<Long, Submodules> submodules, Set<Long> missingRoles, Set<Long> missingModules,
+            Set<Long> missingSubmodules) {
+
+        static ResolvedPermissions lookup(PermissionCatalog catalog, Set<Long> rolesId, Set<Long> modulesId,
+                Set<Long> submodulesId) {
+            Map<Long, Roles> roles = new HashMap<>();
+            Map<Long, Modules> modules = new HashMap<>();
+            Map<Long, Submodules> submodules = new HashMap<>();
+            Set<Long> missingRoles = new TreeSet<>();
+            Set<Long> missingModules = new TreeSet<>();
+            Set<Long> missingSubmodules = new TreeSet<>();
+
+            for (Long id : rolesId) {
+                Roles role = catalog.getRole(id);
+                if (role != null) {
+                    roles.put(id, role);
+                } else {
+                    missingRoles.add(id);
+                }
+            }
+            for (Long id : modulesId) {
+                Modules module = catalog.getModule(id);
+                if (module != null) {
+                    modules.put(id, module);
+                } else {
+                    missingModules.add(id);
+                }
+            }
+            for (Long id : submodulesId) {
+                Submodules submodule = catalog.getSubmodule(id);
+                if (submodule != null) {
+                    submodules.put(id, submodule);
+                } else {
+                    missingSubmodules.add(id);
+                }
+            }
+            return new ResolvedPermissions(roles, modules, submodules, missingRoles, missingModules,
+                    missingSubmodules);
+        }
+
+        boolean isComplete() {
+            return missingRoles.isEmpty() && missingModules.isEmpty() && missingSubmodules.isEmpty();
+        }
+
+        String describeMissing() {
+            List<String> parts = new ArrayList<>();
+            if (!missingRoles.isEmpty()) {
+                parts.add("roles " + missingRoles);
+            }
+            if (!missingModules.isEmpty()) {
+                parts.add("modules " + missingModules);
+            }
+            if (!missingSubmodules.isEmpty()) {
+                parts.add("submodules " + missingSubmodules);
+            }
+            return String.join(", ", parts);
+        }
+    }
 }
@@ -19,4 +19,30 @@ INSERT INTO submodules (name, id_module) VALUES
 ('WriteUsers', 2),
 ('ReadPerfumes', 3),
 ('WritePerfumes', 3)
-ON CONFLICT (name, id_module) DO NOTHING;  -- if (name, id_module) is unique
\ No newline at end of file
+ON CONFLICT (name, id_module) DO NOTHING;  -- if (name, id_module) is unique
+
+-- Permission masks for the users that have none yet (bit n - 1 holds id n)
+INSERT INTO user_permissions (id_user, roles_mask, modules_mask, submodules_mask)
+SELECT
+    u.id_user,
+    (
+        SELECT CASE WHEN bool_or(ur.id_role NOT BETWEEN 1 AND 64) THEN NULL
+                    ELSE COALESCE(bit_or(1::bigint << (ur.id_role - 1)::int), 0) END
+        FROM users_roles ur
+        WHERE ur.id_user = u.id_user
+    ),
+    (
+        SELECT CASE WHEN bool_or(um.id_module NOT BETWEEN 1 AND 64) THEN NULL
+                    ELSE COALESCE(bit_or(1::bigint << (um.id_module - 1)::int), 0) END
+        FROM users_modules um
+        WHERE um.id_user = u.id_user
+    ),
+    (
+        SELECT CASE WHEN bool_or(us.id_submodule NOT BETWEEN 1 AND 64) THEN NULL
+                    ELSE COALESCE(bit_or(1::bigint << (us.id_submodule - 1)::int), 0) END
+        FROM users_submodules us
+        WHERE us.id_user = u.id_user
+    )
+FROM users u
+WHERE NOT EXISTS (SELECT 1 FROM user_permissions p WHERE p.id_user = u.id_user)
+ON CONFLICT (id_user) DO NOTHING;
@@ -0,0 +1,11 @@
+-- Indexes that Hibernate cannot derive from the entities.
+-- Runs after Hibernate has created or updated the tables.
+
+-- Case-insensitive prefix search on username and email (keyset search)
+CREATE INDEX IF NOT EXISTS idx_users_username_lower_pattern ON users (lower(username) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_users_email_lower_pattern ON users (lower(email) text_pattern_ops);
+
+-- Keyset pages sorted by username or email: byte-wise (C) order of the
+-- lowercased key, then id, so every page is a single range scan
+CREATE INDEX IF NOT EXISTS idx_users_username_lower_c_id ON users ((lower(username) COLLATE "C"), id_user);
+CREATE INDEX IF NOT EXISTS idx_users_email_lower_c_id ON users ((lower(email) COLLATE "C"), id_user);
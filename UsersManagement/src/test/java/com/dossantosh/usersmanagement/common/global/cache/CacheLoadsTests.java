@@ -0,0 +1,127 @@
+package com.dossantosh.usersmanagement.common.global.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+class CacheLoadsTests {
+
+	private final AsyncCache<String, String> cache = Caffeine.newBuilder().buildAsync();
+
+	@Test
+	void loadsAMissOnceAndServesTheCachedValue() {
+		AtomicInteger loads = new AtomicInteger();
+
+		String first = CacheLoads.getOrLoad(cache, "key", key -> key + loads.incrementAndGet());
+		String second = CacheLoads.getOrLoad(cache, "key", key -> key + loads.incrementAndGet());
+
+		assertThat(first).isEqualTo("key1");
+		assertThat(second).isEqualTo("key1");
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void concurrentCallersWaitForTheSingleLoad() throws Exception {
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			Future<String> loader = executor.submit(() -> CacheLoads.getOrLoad(cache, "key", key -> {
+				loads.incrementAndGet();
+				loading.countDown();
+				await(release);
+				return "value";
+			}));
+			assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+			List<Future<String>> waiters = new ArrayList<>();
+			for (int i = 0; i < 7; i++) {
+				waiters.add(executor.submit(() -> CacheLoads.getOrLoad(cache, "key", key -> {
+					loads.incrementAndGet();
+					return "other";
+				})));
+			}
+			release.countDown();
+
+			assertThat(loader.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+			for (Future<String> waiter : waiters) {
+				assertThat(waiter.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+			}
+			assertThat(loads).hasValue(1);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void rethrowsAFailedLoadToTheCallerAndItsWaiters() throws Exception {
+		IllegalStateException failure = new IllegalStateException("database down");
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<String> loader = executor.submit(() -> CacheLoads.getOrLoad(cache, "key", key -> {
+				loading.countDown();
+				await(release);
+				throw failure;
+			}));
+			assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+			AtomicReference<Throwable> waiterFailure = new AtomicReference<>();
+			Thread waiter = new Thread(() -> {
+				try {
+					CacheLoads.getOrLoad(cache, "key", key -> "other");
+				} catch (RuntimeException e) {
+					waiterFailure.set(e);
+				}
+			});
+			waiter.start();
+			while (waiter.getState() != Thread.State.WAITING) {
+				Thread.onSpinWait();
+			}
+			release.countDown();
+			waiter.join(5000);
+
+			assertThatThrownBy(() -> loader.get(5, TimeUnit.SECONDS)).hasCause(failure);
+			assertThat(waiterFailure.get()).isSameAs(failure);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void doesNotCacheAFailedLoad() {
+		IllegalStateException failure = new IllegalStateException("database down");
+
+		assertThatThrownBy(() -> CacheLoads.getOrLoad(cache, "key", key -> {
+			throw failure;
+		})).isSameAs(failure);
+
+		assertThat(CacheLoads.getOrLoad(cache, "key", key -> "loaded")).isEqualTo("loaded");
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
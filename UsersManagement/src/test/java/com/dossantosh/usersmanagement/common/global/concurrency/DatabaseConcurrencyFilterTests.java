@@ -0,0 +1,177 @@
+package com.dossantosh.usersmanagement.common.global.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.dossantosh.usersmanagement.common.global.concurrency.DatabaseConcurrencyFilter.Budget;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+/**
+ * Budgets of a filter set up for a pool of 20 connections. Asynchronous
+ * requests hold their permit until their context completes, which lets the
+ * tests keep permits without threads.
+ */
+class DatabaseConcurrencyFilterTests {
+
+	private final HikariDataSource dataSource = new HikariDataSource();
+
+	private DatabaseConcurrencyFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		dataSource.setMaximumPoolSize(20);
+		filter = new DatabaseConcurrencyFilter(dataSource, new SimpleMeterRegistry(),
+				new ObjectMapper().findAndRegisterModules());
+		filter.setAuth(new Budget(2, Duration.ofMillis(10)));
+		filter.setRead(new Budget(4, Duration.ofMillis(10)));
+		filter.setWrite(new Budget(2, Duration.ofMillis(10)));
+		filter.setExport(new Budget(1, Duration.ofMillis(10)));
+		filter.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		dataSource.close();
+	}
+
+	@Test
+	void scalesDownAndBackUpWhilePermitsAreHeld() throws Exception {
+		List<MockAsyncContext> held = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			held.add(startAsync("GET", "/api/users"));
+		}
+		assertThat(available("read")).isZero();
+
+		filter.scaleTo(10);
+		assertThat(limit("read")).isEqualTo(2);
+		assertThat(available("read")).isEqualTo(-2);
+		assertThat(status("GET", "/api/users")).isEqualTo(503);
+
+		held.get(0).complete();
+		held.get(1).complete();
+		assertThat(available("read")).isZero();
+		assertThat(status("GET", "/api/users")).isEqualTo(503);
+
+		held.get(2).complete();
+		assertThat(available("read")).isEqualTo(1);
+		assertThat(status("GET", "/api/users")).isEqualTo(200);
+
+		filter.scaleTo(20);
+		assertThat(limit("read")).isEqualTo(4);
+		assertThat(available("read")).isEqualTo(3);
+
+		held.get(3).complete();
+		assertThat(available("read")).isEqualTo(4);
+	}
+
+	@Test
+	void keepsOnePermitPerBudgetOnATinyPool() {
+		filter.scaleTo(1);
+
+		assertThat(limit("auth")).isEqualTo(1);
+		assertThat(limit("read")).isEqualTo(1);
+		assertThat(limit("write")).isEqualTo(1);
+		assertThat(limit("export")).isEqualTo(1);
+		assertThat(available("read")).isEqualTo(1);
+	}
+
+	@Test
+	void releasesAnAsyncRequestOnceWhenItCompletes() throws Exception {
+		MockAsyncContext context = startAsync("GET", "/api/users/export");
+		assertThat(available("export")).isZero();
+
+		AsyncListener listener = context.getListeners().get(0);
+		listener.onTimeout(new AsyncEvent(context));
+		listener.onError(new AsyncEvent(context));
+		assertThat(available("export")).isZero();
+
+		context.complete();
+		assertThat(available("export")).isEqualTo(1);
+	}
+
+	@Test
+	void keepsThePermitWhenAsyncProcessingStartsAgain() throws Exception {
+		MockAsyncContext first = startAsync("GET", "/api/users/export");
+		MockHttpServletRequest request = (MockHttpServletRequest) first.getRequest();
+		AsyncListener listener = first.getListeners().get(0);
+
+		// The request notifies the listeners of the first context, which move to the second
+		MockAsyncContext second = (MockAsyncContext) request.startAsync();
+
+		assertThat(second.getListeners()).containsExactly(listener);
+		assertThat(available("export")).isZero();
+
+		second.complete();
+		assertThat(available("export")).isEqualTo(1);
+	}
+
+	@Test
+	void releasesThePermitWhenTheChainFails() {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/users");
+		FilterChain failing = (req, res) -> {
+			throw new ServletException("boom");
+		};
+
+		assertThatThrownBy(() -> filter.doFilter(request, new MockHttpServletResponse(), failing))
+				.isInstanceOf(ServletException.class);
+		assertThat(available("write")).isEqualTo(2);
+	}
+
+	@Test
+	void leavesLoginsOutOfTheAuthBudget() throws Exception {
+		startAsync("POST", "/api/auth/refresh");
+		startAsync("POST", "/api/auth/refresh");
+
+		MockHttpServletResponse rejected = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("POST", "/api/auth/logout"), rejected, (req, res) -> {
+		});
+		assertThat(rejected.getStatus()).isEqualTo(503);
+		assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+
+		assertThat(status("POST", "/api/auth/login")).isEqualTo(200);
+		assertThat(available("auth")).isZero();
+	}
+
+	private MockAsyncContext startAsync(String method, String uri) throws IOException, ServletException {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+		request.setAsyncSupported(true);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, (req, res) -> req.startAsync());
+		assertThat(response.getStatus()).isEqualTo(200);
+		return (MockAsyncContext) request.getAsyncContext();
+	}
+
+	private int status(String method, String uri) throws IOException, ServletException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest(method, uri), response, (req, res) -> {
+		});
+		return response.getStatus();
+	}
+
+	private int available(String budget) {
+		return (int) filter.budgets().get(budget).get("available");
+	}
+
+	private int limit(String budget) {
+		return (int) filter.budgets().get(budget).get("limit");
+	}
+}
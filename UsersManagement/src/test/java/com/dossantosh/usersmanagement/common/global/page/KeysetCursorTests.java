@@ -0,0 +1,84 @@
+package com.dossantosh.usersmanagement.common.global.page;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import com.dossantosh.usersmanagement.common.global.errors.custom.BusinessException;
+
+class KeysetCursorTests {
+
+	@Test
+	void roundTripsCursorsOfEverySort() {
+		KeysetCursor byId = new KeysetCursor(UserSort.ID, null, 42);
+		KeysetCursor byUsername = new KeysetCursor(UserSort.USERNAME, "álice", 7);
+		KeysetCursor byEmail = new KeysetCursor(UserSort.EMAIL, "", Long.MAX_VALUE);
+
+		assertThat(KeysetCursor.decode(byId.encode())).isEqualTo(byId);
+		assertThat(KeysetCursor.decode(byUsername.encode())).isEqualTo(byUsername);
+		assertThat(KeysetCursor.decode(byEmail.encode())).isEqualTo(byEmail);
+	}
+
+	@Test
+	void encodesAsUnpaddedBase64Url() {
+		String token = new KeysetCursor(UserSort.USERNAME, "a/b+c?", 1).encode();
+
+		assertThat(token).matches("[A-Za-z0-9_-]+");
+	}
+
+	@Test
+	void rejectsTokensThatAreNotBase64() {
+		assertInvalid("not a cursor!");
+	}
+
+	@Test
+	void rejectsTruncatedTokens() {
+		String token = new KeysetCursor(UserSort.USERNAME, "alice", 7).encode();
+
+		assertInvalid(token.substring(0, token.length() - 4));
+		assertInvalid("");
+	}
+
+	@Test
+	void rejectsAnUnknownVersionOrSort() {
+		byte[] bytes = decode(new KeysetCursor(UserSort.ID, null, 1).encode());
+
+		bytes[0] = 2;
+		assertInvalid(encode(bytes));
+
+		bytes[0] = 1;
+		bytes[1] = 9;
+		assertInvalid(encode(bytes));
+
+		bytes[1] = -1;
+		assertInvalid(encode(bytes));
+	}
+
+	@Test
+	void rejectsAKeyThatDoesNotMatchTheSort() {
+		byte[] withoutKey = decode(new KeysetCursor(UserSort.ID, null, 1).encode());
+		withoutKey[1] = (byte) UserSort.USERNAME.ordinal();
+		assertInvalid(encode(withoutKey));
+
+		byte[] withKey = decode(new KeysetCursor(UserSort.USERNAME, "alice", 1).encode());
+		withKey[1] = (byte) UserSort.ID.ordinal();
+		assertInvalid(encode(withKey));
+	}
+
+	private static void assertInvalid(String token) {
+		assertThatThrownBy(() -> KeysetCursor.decode(token))
+				.isInstanceOf(BusinessException.class)
+				.hasMessage("Invalid cursor");
+	}
+
+	private static byte[] decode(String token) {
+		return Base64.getUrlDecoder().decode(token);
+	}
+
+	private static String encode(byte[] bytes) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+}
@@ -0,0 +1,200 @@
+package com.dossantosh.usersmanagement.common.global.pool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import com.dossantosh.usersmanagement.common.global.concurrency.DatabaseConcurrencyFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Controller fed with synthetic pool readings: a pool of 20 connections that
+ * may be resized between 10 and 30, 5 at a time, after 3 quiet checks.
+ */
+class AdaptivePoolControllerTests {
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final FakePool pool = new FakePool();
+
+	private final StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+
+	private Timer acquireTimer;
+
+	private AdaptivePoolController controller;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		pool.setPoolName("test");
+		pool.setMaximumPoolSize(20);
+		pool.setMinimumIdle(20);
+		acquireTimer = Timer.builder("hikaricp.connections.acquire").tag("pool", "test").register(meterRegistry);
+
+		controller = new AdaptivePoolController(pool, meterRegistry,
+				beanFactory.getBeanProvider(DatabaseConcurrencyFilter.class));
+		controller.setMinSize(10);
+		controller.setMaxSize(30);
+		controller.setStep(5);
+		controller.setShrinkAfter(3);
+		controller.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		pool.close();
+	}
+
+	@Test
+	void growsOneStepPerCheckWhileRequestsWaitUpToMaxSize() {
+		busy(2);
+		controller.adjust();
+		assertThat(pool.getMaximumPoolSize()).isEqualTo(25);
+
+		busy(2);
+		controller.adjust();
+		assertThat(pool.getMaximumPoolSize()).isEqualTo(30);
+
+		busy(2);
+		controller.adjust();
+		assertThat(pool.getMaximumPoolSize()).isEqualTo(30);
+		assertThat(controller.state()).containsEntry("adjustments", 2L);
+	}
+
+	@Test
+	void growsWhenTheMeanAcquireTimeReachesTheTarget() {
+		busy(0);
+		acquireTimer.record(Duration.ofMillis(10));
+		controller.adjust();
+		assertThat(pool.getMaximumPoolSize()).isEqualTo(25);
+
+		// No acquire since the previous check: the old slow one is not counted again
+		busy(0);
+		controller.adjust();
+		assertThat(pool.getMaximumPoolSize()).isEqualTo(25);
+	}
+
+	@Test
+	void doesNotGrowWhileMostConnectionsAreIdle() {
+		pool.active = 10;
+		pool.waiting = 3;
+		controller.adjust();
+
+		assertThat(pool.getMaximumPoolSize()).isEqualTo(20);
+	}
+
+	@Test
+	void shrinksAfterQuietChecksDownToMinSize() {
+		quietChecks(2);
+		assertThat(pool.getMaximumPoolSize()).isEqualTo(20);
+
+		quietChecks(1);
+		assertThat(pool.getMaximumPoolSize()).isEqualTo(15);
+		assertThat(pool.getMinimumIdle()).isEqualTo(15);
+
+		quietChecks(3);
+		assertThat(pool.getMaximumPoolSize()).isEqualTo(10);
+
+		quietChecks(3);
+		assertThat(pool.getMaximumPoolSize()).isEqualTo(10);
+	}
+
+	@Test
+	void aBusierCheckRestartsTheQuietCount() {
+		quietChecks(2);
+		pool.active = 10;
+		controller.adjust();
+		quietChecks(2);
+		assertThat(pool.getMaximumPoolSize()).isEqualTo(20);
+
+		quietChecks(1);
+		assertThat(pool.getMaximumPoolSize()).isEqualTo(15);
+	}
+
+	@Test
+	void scalesTheRequestBudgetsWithThePool() {
+		DatabaseConcurrencyFilter filter = new DatabaseConcurrencyFilter(pool, meterRegistry, new ObjectMapper());
+		filter.init();
+		beanFactory.addBean("databaseConcurrencyFilter", filter);
+
+		quietChecks(3);
+
+		Map<String, Object> read = filter.budgets().get("read");
+		assertThat(read).containsEntry("limit", 37).containsEntry("configuredLimit", 50);
+	}
+
+	/**
+	 * Every connection in use, with the given number of requests waiting.
+	 */
+	private void busy(int waiting) {
+		pool.active = pool.getMaximumPoolSize();
+		pool.waiting = waiting;
+	}
+
+	private void quietChecks(int checks) {
+		pool.active = 0;
+		pool.waiting = 0;
+		for (int i = 0; i < checks; i++) {
+			controller.adjust();
+		}
+	}
+
+	/**
+	 * Unstarted pool whose configuration is real and whose connection counts
+	 * are set by the test.
+	 */
+	private static final class FakePool extends HikariDataSource implements HikariPoolMXBean {
+
+		private int active;
+
+		private int waiting;
+
+		@Override
+		public HikariPoolMXBean getHikariPoolMXBean() {
+			return this;
+		}
+
+		@Override
+		public int getActiveConnections() {
+			return active;
+		}
+
+		@Override
+		public int getIdleConnections() {
+			return getMaximumPoolSize() - active;
+		}
+
+		@Override
+		public int getTotalConnections() {
+			return getMaximumPoolSize();
+		}
+
+		@Override
+		public int getThreadsAwaitingConnection() {
+			return waiting;
+		}
+
+		@Override
+		public void softEvictConnections() {
+		}
+
+		@Override
+		public void suspendPool() {
+		}
+
+		@Override
+		public void resumePool() {
+		}
+	}
+}
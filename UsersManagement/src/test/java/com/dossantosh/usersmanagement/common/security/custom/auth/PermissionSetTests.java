@@ -0,0 +1,79 @@
+package com.dossantosh.usersmanagement.common.security.custom.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class PermissionSetTests {
+
+	@Test
+	void containsTheGivenIds() {
+		PermissionSet set = PermissionSet.of(1, 64, 65, 200);
+
+		assertThat(set.contains(1)).isTrue();
+		assertThat(set.contains(64)).isTrue();
+		assertThat(set.contains(65)).isTrue();
+		assertThat(set.contains(200)).isTrue();
+		assertThat(set.contains(2)).isFalse();
+		assertThat(set.contains(0)).isFalse();
+		assertThat(set.contains(1000)).isFalse();
+		assertThat(set).containsExactly(1L, 64L, 65L, 200L);
+		assertThat(set).hasSize(4);
+	}
+
+	@Test
+	void behavesAsASetOfLongs() {
+		PermissionSet set = PermissionSet.of(List.of(3L, 1L, 3L));
+
+		assertThat(set).isEqualTo(Set.of(1L, 3L));
+		assertThat(Set.of(1L, 3L)).isEqualTo(set);
+		assertThat(set.hashCode()).isEqualTo(Set.of(1L, 3L).hashCode());
+		assertThat(set.contains((Object) 1)).isFalse();
+		assertThatThrownBy(() -> set.add(2L)).isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	@Test
+	void convertsToAndFromMasks() {
+		PermissionSet set = PermissionSet.of(1, 3, 64);
+
+		assertThat(set.toMask()).isEqualTo(0b101L | Long.MIN_VALUE);
+		assertThat(PermissionSet.fromMask(set.toMask())).isEqualTo(set);
+		assertThat(PermissionSet.of(65).toMask()).isNull();
+		assertThat(PermissionSet.EMPTY.toMask()).isZero();
+		assertThat(PermissionSet.fromMask(0)).isSameAs(PermissionSet.EMPTY);
+	}
+
+	@Test
+	void convertsToAndFromWords() {
+		PermissionSet set = PermissionSet.of(2, 130);
+
+		assertThat(set.toWords()).hasSize(3);
+		assertThat(PermissionSet.fromWords(set.toWords())).isEqualTo(set);
+		assertThat(PermissionSet.fromWords(new long[] { 1, 0, 0 }).toWords()).containsExactly(1L);
+	}
+
+	@Test
+	void keepsIdsAboveTheBitmapRangeInASortedArray() {
+		long large = PermissionSet.MAX_ID + 1;
+		PermissionSet set = PermissionSet.of(large, 5, large, 1);
+
+		assertThat(set).containsExactly(1L, 5L, large);
+		assertThat(set.contains(large)).isTrue();
+		assertThat(set.contains(large + 1)).isFalse();
+		assertThat(set.toMask()).isNull();
+		assertThat(set.toWords()).isNull();
+		assertThat(set.toIds()).containsExactly(1L, 5L, large);
+		assertThat(set).isEqualTo(PermissionSet.of(1, 5, large));
+		assertThat(set.hashCode()).isEqualTo(Set.of(1L, 5L, large).hashCode());
+	}
+
+	@Test
+	void rejectsIdsThatAreNotPositive() {
+		assertThatThrownBy(() -> PermissionSet.of(0)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> PermissionSet.of(-1)).isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,85 @@
+package com.dossantosh.usersmanagement.common.security.custom.auth.bus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Two nodes sharing an {@link InMemorySharedUserAuthCache}.
+ */
+class UserAuthCacheTests {
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private UserAuthCache nodeA;
+
+	private UserAuthCache nodeB;
+
+	@BeforeEach
+	void setUp() {
+		StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+		beanFactory.addBean("sharedUserAuthCache", new InMemorySharedUserAuthCache(Duration.ofMinutes(1)));
+		nodeA = node(beanFactory);
+		nodeB = node(beanFactory);
+	}
+
+	@Test
+	void servesOtherNodesFromTheSharedCacheWithoutThePassword() {
+		UserAuth loaded = nodeA.get("alice", this::load);
+		UserAuth shared = nodeB.get("alice", this::load);
+
+		assertThat(loads).hasValue(1);
+		assertThat(loaded.getPassword()).isEqualTo("hash");
+		assertThat(shared.getUsername()).isEqualTo("alice");
+		assertThat(shared.getPassword()).isNull();
+	}
+
+	@Test
+	void evictionOnOneNodeEvictsEveryNode() {
+		nodeA.get("alice", this::load);
+		nodeB.get("alice", this::load);
+
+		nodeA.evict("alice");
+		nodeB.get("alice", this::load);
+
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void evictAllOnOneNodeEvictsEveryNode() {
+		nodeA.get("alice", this::load);
+		nodeB.get("bob", this::load);
+
+		nodeB.evictAll();
+		nodeA.get("alice", this::load);
+		nodeB.get("bob", this::load);
+
+		assertThat(loads).hasValue(4);
+	}
+
+	private UserAuth load(String username) {
+		loads.incrementAndGet();
+		UserAuth userAuth = new UserAuth();
+		userAuth.setId((long) username.hashCode());
+		userAuth.setUsername(username);
+		userAuth.setPassword("hash");
+		userAuth.setEnabled(true);
+		return userAuth;
+	}
+
+	private static UserAuthCache node(StaticListableBeanFactory beanFactory) {
+		UserAuthCache cache = new UserAuthCache(new SimpleMeterRegistry(),
+				beanFactory.getBeanProvider(SharedUserAuthCache.class));
+		cache.init();
+		return cache;
+	}
+}
@@ -0,0 +1,48 @@
+package com.dossantosh.usersmanagement.common.security.custom.auth.bus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import com.dossantosh.usersmanagement.common.security.custom.auth.PermissionSet;
+import com.dossantosh.usersmanagement.common.security.custom.auth.UserAuth;
+
+class UserAuthCodecTests {
+
+	@Test
+	void roundTripsAPrincipalWithoutItsPassword() {
+		UserAuth userAuth = userAuth();
+		userAuth.setRoles(PermissionSet.of(1, 2));
+		userAuth.setModules(PermissionSet.of(1, 70));
+		userAuth.setSubmodules(PermissionSet.of(3, PermissionSet.MAX_ID + 5));
+
+		UserAuth decoded = UserAuthCodec.decode(UserAuthCodec.encode(userAuth));
+
+		assertThat(decoded.getId()).isEqualTo(7L);
+		assertThat(decoded.getUsername()).isEqualTo("alice");
+		assertThat(decoded.getEmail()).isNull();
+		assertThat(decoded.getPassword()).isNull();
+		assertThat(decoded.getEnabled()).isTrue();
+		assertThat(decoded.getIsAdmin()).isFalse();
+		assertThat(decoded.getRoles()).containsExactly(1L, 2L);
+		assertThat(decoded.getModules()).containsExactly(1L, 70L);
+		assertThat(decoded.getSubmodules()).containsExactly(3L, PermissionSet.MAX_ID + 5);
+	}
+
+	@Test
+	void rejectsUnknownVersions() {
+		assertThatThrownBy(() -> UserAuthCodec.decode(new byte[] { 9 }))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static UserAuth userAuth() {
+		UserAuth userAuth = new UserAuth();
+		userAuth.setId(7L);
+		userAuth.setUsername("alice");
+		userAuth.setPassword("$2a$10$hash");
+		userAuth.setEnabled(true);
+		userAuth.setIsAdmin(false);
+		return userAuth;
+	}
+}
@@ -0,0 +1,90 @@
+package com.dossantosh.usersmanagement.common.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TokenRevocationStoreTests {
+
+	private static final long HOUR = 3_600_000;
+
+	private JwtUtil jwtUtil;
+
+	private TokenRevocationStore store;
+
+	@BeforeEach
+	void setUp() {
+		jwtUtil = new JwtUtil();
+		jwtUtil.setExpiration(HOUR);
+		store = new TokenRevocationStore(jwtUtil);
+	}
+
+	@Test
+	void revokesASingleTokenById() {
+		long now = System.currentTimeMillis();
+		VerifiedToken revoked = token("a", "alice", now, now + HOUR);
+
+		store.revoke(revoked);
+
+		assertThat(store.isRevoked(revoked)).isTrue();
+		assertThat(store.isRevoked(token("b", "alice", now, now + HOUR))).isFalse();
+	}
+
+	@Test
+	void purgeDropsOnlyTheBucketsOfExpiredTokens() {
+		long now = System.currentTimeMillis();
+		VerifiedToken expired = token("a", "alice", now - 2 * HOUR, now - HOUR);
+		VerifiedToken live = token("b", "alice", now, now + HOUR);
+		store.revoke(expired);
+		store.revoke(live);
+
+		store.purgeExpired();
+
+		assertThat(store.isRevoked(expired)).isFalse();
+		assertThat(store.isRevoked(live)).isTrue();
+	}
+
+	@Test
+	void revokesTheTokensIssuedToTheUserBeforeTheCutoff() {
+		long now = System.currentTimeMillis();
+		VerifiedToken before = token("a", "alice", now - 1000, now + HOUR);
+		VerifiedToken after = token("b", "alice", now + 1000, now + HOUR);
+
+		store.revokeAllForUser("alice");
+
+		assertThat(store.isRevoked(before)).isTrue();
+		assertThat(store.isRevoked(after)).isFalse();
+		assertThat(store.isRevoked(token("c", "bob", now - 1000, now + HOUR))).isFalse();
+	}
+
+	@Test
+	void revokingATokenWithoutIdRevokesItsUser() {
+		long now = System.currentTimeMillis();
+
+		store.revoke(token(null, "alice", now - 1000, now + HOUR));
+
+		assertThat(store.isRevoked(token("a", "alice", now - 1000, now + HOUR))).isTrue();
+	}
+
+	@Test
+	void purgeForgetsTheCutoffOnceItsTokensHaveExpired() throws InterruptedException {
+		long now = System.currentTimeMillis();
+		VerifiedToken token = token("a", "alice", now - 1000, now + HOUR);
+		store.revokeAllForUser("alice");
+
+		store.purgeExpired();
+		assertThat(store.isRevoked(token)).isTrue();
+
+		jwtUtil.setExpiration(1);
+		Thread.sleep(5);
+		store.purgeExpired();
+		assertThat(store.isRevoked(token)).isFalse();
+	}
+
+	private static VerifiedToken token(String id, String subject, long issuedAt, long expiration) {
+		return new VerifiedToken(id, subject, new Date(issuedAt), new Date(expiration), null);
+	}
+}
@@ -0,0 +1,62 @@
+package com.dossantosh.usersmanagement.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.dossantosh.usersmanagement.services.UserImportService.CsvReader;
+
+class CsvReaderTests {
+
+	@Test
+	void splitsRecordsOnLfAndCrlf() throws IOException {
+		assertThat(read("a,b\nc,d\r\ne,f")).containsExactly(
+				List.of("a", "b"), List.of("c", "d"), List.of("e", "f"));
+	}
+
+	@Test
+	void treatsALoneCrAsALineEnd() throws IOException {
+		assertThat(read("a\rb\r\n")).containsExactly(List.of("a"), List.of("b"));
+	}
+
+	@Test
+	void keepsEmptyFieldsAndBlankLines() throws IOException {
+		assertThat(read(",a,\n\nb")).containsExactly(List.of("", "a", ""), List.of(""), List.of("b"));
+	}
+
+	@Test
+	void readsQuotedFieldsWithCommasLineBreaksAndDoubledQuotes() throws IOException {
+		assertThat(read("\"a,b\",\"say \"\"hi\"\"\",\"line\r\nbreak\"\r\nnext")).containsExactly(
+				List.of("a,b", "say \"hi\"", "line\r\nbreak"), List.of("next"));
+	}
+
+	@Test
+	void keepsQuotesInsideUnquotedFields() throws IOException {
+		assertThat(read("a\"b,\"\"")).containsExactly(List.of("a\"b", ""));
+	}
+
+	@Test
+	void keepsTheContentOfAnUnterminatedQuote() throws IOException {
+		assertThat(read("a,\"open\nfield")).containsExactly(List.of("a", "open\nfield"));
+	}
+
+	@Test
+	void returnsNoRecordForAnEmptyInput() throws IOException {
+		assertThat(read("")).isEmpty();
+	}
+
+	private static List<List<String>> read(String csv) throws IOException {
+		CsvReader reader = new CsvReader(new StringReader(csv));
+		List<List<String>> records = new ArrayList<>();
+		List<String> record;
+		while ((record = reader.next()) != null) {
+			records.add(record);
+		}
+		return records;
+	}
+}